@@ -0,0 +1,42 @@
+package cpsc2150.extendedConnectX.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class is the entry point of the benchmarks jar. It takes the usual JMH options, such as
+ * {@code BoardOps -p type=bit,packed -p size=100x100}, and always adds the gc profiler so every result comes
+ * with its allocation rate.
+ *
+ * @version 2.0
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    /**
+     * <p>
+     * This method runs the benchmarks picked by args.
+     * </p>
+     *
+     * @param args
+     *            JMH command-line options
+     * @throws Exception if the options can't be parsed or a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+        Runner runner = new Runner(new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class).build());
+        if (cmd.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+}
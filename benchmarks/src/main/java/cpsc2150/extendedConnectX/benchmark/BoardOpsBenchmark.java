@@ -0,0 +1,123 @@
+package cpsc2150.extendedConnectX.benchmark;
+
+import cpsc2150.extendedConnectX.models.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * This class measures the {@link IGameBoard} operations the game and the computer players use most, for every
+ * implementation in {@link BoardFactory#TYPES}, across board sizes, how full the board is, and player counts.
+ * <p>
+ * Each operation is measured for throughput and, by sampling, for its latency percentiles. The board is filled
+ * to the density before measuring, and placeToken is paired with removeToken so the fill level stays put.
+ * The rows, columns and tokens each call uses are picked up front, so the random number generator isn't
+ * measured.
+ *
+ * @invariant [board holds density * rows * cols tokens of players players between calls]
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardOpsBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({BoardFactory.FAST, BoardFactory.MEM, BoardFactory.BIT, BoardFactory.OFF_HEAP, BoardFactory.PACKED})
+    public String type;
+
+    @Param({"3x3", "6x7", "20x20", "50x50", "100x100"})
+    public String size;
+
+    @Param({"0.1", "0.5", "0.9"})
+    public double density;
+
+    @Param({"2", "10"})
+    public int players;
+
+    private IGameBoard board;
+    private final int[] probeRows = new int[PROBES];
+    private final int[] probeCols = new int[PROBES];
+    private final int[] openCols = new int[PROBES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int rows = rowsOf(size);
+        int cols = columnsOf(size);
+        SplittableRandom random = new SplittableRandom(rows * 31L + cols);
+        board = BoardFactory.create(type, rows, cols, Math.min(4, Math.min(rows, cols)));
+        fill(board, players, density, random);
+        for (int i = 0; i < PROBES; i++) {
+            probeRows[i] = random.nextInt(rows);
+            probeCols[i] = random.nextInt(cols);
+            do {
+                openCols[i] = random.nextInt(cols);
+            } while (!board.checkIfFree(openCols[i]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (board instanceof GameBoardOffHeap) {
+            ((GameBoardOffHeap) board).release();
+        }
+    }
+
+    @Benchmark
+    public int placeToken() {
+        int i = next++ & (PROBES - 1);
+        int c = openCols[i];
+        board.placeToken(PlayerTokens.tokenAt(i % players), c);
+        board.removeToken(c);
+        return board.getColumnHeight(c);
+    }
+
+    @Benchmark
+    public char whatsAtPos() {
+        int i = next++ & (PROBES - 1);
+        return board.whatsAtPos(probeRows[i], probeCols[i]);
+    }
+
+    @Benchmark
+    public boolean checkForWin() {
+        return board.checkForWin(probeCols[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean checkTie() {
+        return board.checkTie();
+    }
+
+    /**
+     * returns the number of rows in a size such as "6x7"
+     */
+    static int rowsOf(String size) {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+
+    /**
+     * returns the number of columns in a size such as "6x7"
+     */
+    static int columnsOf(String size) {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+
+    /**
+     * places tokens in random columns until the board is density full, without checking for wins
+     * @pre [board is empty] AND 0 <= density < 1
+     * @post [board has density * rows * cols tokens in turn order of np players]
+     */
+    static void fill(IGameBoard board, int np, double density, SplittableRandom random) {
+        int target = (int) (density * board.getNumRows() * board.getNumColumns());
+        for (int i = 0; i < target; i++) {
+            int c;
+            do {
+                c = random.nextInt(board.getNumColumns());
+            } while (!board.checkIfFree(c));
+            board.placeToken(PlayerTokens.tokenAt(i % np), c);
+        }
+    }
+}
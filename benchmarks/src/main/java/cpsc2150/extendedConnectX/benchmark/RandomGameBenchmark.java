@@ -0,0 +1,61 @@
+package cpsc2150.extendedConnectX.benchmark;
+
+import cpsc2150.extendedConnectX.models.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * This class measures whole games of random moves through a {@link GameEngine}, for every implementation in
+ * {@link BoardFactory#TYPES}, across board sizes and player counts. Every game is played on the same board,
+ * reset first, so only the game itself is measured.
+ *
+ * @invariant [board is the board of the last game played]
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RandomGameBenchmark {
+
+    @Param({BoardFactory.FAST, BoardFactory.MEM, BoardFactory.BIT, BoardFactory.OFF_HEAP, BoardFactory.PACKED})
+    public String type;
+
+    @Param({"3x3", "6x7", "20x20", "50x50", "100x100"})
+    public String size;
+
+    @Param({"2", "10"})
+    public int players;
+
+    private IGameBoard board;
+    private int[] legal;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int rows = BoardOpsBenchmark.rowsOf(size);
+        int cols = BoardOpsBenchmark.columnsOf(size);
+        board = BoardFactory.create(type, rows, cols, Math.min(4, Math.min(rows, cols)));
+        legal = new int[cols];
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (board instanceof GameBoardOffHeap) {
+            ((GameBoardOffHeap) board).release();
+        }
+    }
+
+    @Benchmark
+    public int randomGame() {
+        board.reset();
+        GameEngine game = new GameEngine(board, players);
+        while (!game.isGameOver()) {
+            game.applyMove(legal[random.nextInt(game.getLegalMoves(legal))]);
+        }
+        return game.getNumMoves();
+    }
+}
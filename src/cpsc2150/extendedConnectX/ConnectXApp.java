@@ -1,11 +1,19 @@
 package cpsc2150.extendedConnectX;
 
 
+import cpsc2150.extendedConnectX.controllers.ConnectXController;
+import cpsc2150.extendedConnectX.controllers.RemoteController;
 import cpsc2150.extendedConnectX.controllers.SetupController;
+import cpsc2150.extendedConnectX.models.BoardCostModel;
+import cpsc2150.extendedConnectX.network.Protocol;
 import cpsc2150.extendedConnectX.views.SetupView;
+import java.io.IOException;
+import java.nio.file.Paths;
+import javax.swing.SwingUtilities;
 
 /**
- * This class is the entry point of our program and just loads the set up screen and controller
+ * This class is the entry point of our program and just loads the set up screen and controller, picks up
+ * a game saved in a snapshot file, or joins a game on a {@link cpsc2150.extendedConnectX.network.GameServer}
  *
  * @version 2.0
  */
@@ -17,11 +25,39 @@ public class ConnectXApp {
      * </p>
      *
      * @param args
-     *            Command-line arguments (there shouldn't be any).
+     *            Command-line arguments: a snapshot file to resume, {@code --connect host[:port] rows cols
+     *            numToWin players} to play on a server, or none to start a new game.
      */
     public static void main(String[] args) {
-        SetupView screen = new SetupView();
-        SetupController controller = new SetupController(screen);
-        screen.registerObserver(controller);
+        if (args.length == 1) {
+            // a resumed game's board is picked by the cost model, which may have to calibrate first, so
+            // that is done here instead of on the event dispatch thread
+            BoardCostModel.getDefault();
+        }
+        // the screens and controllers are only used on the event dispatch thread
+        SwingUtilities.invokeLater(() -> {
+            if (args.length == 6 && args[0].equals("--connect")) {
+                String[] address = args[1].split(":");
+                try {
+                    new RemoteController(address[0],
+                            address.length > 1 ? Integer.parseInt(address[1]) : Protocol.DEFAULT_PORT,
+                            Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+                            Integer.parseInt(args[5]));
+                    return;
+                } catch (IOException e) {
+                    System.err.println("Can't connect to " + args[1] + ": " + e.getMessage());
+                }
+            } else if (args.length > 0) {
+                try {
+                    ConnectXController.resume(Paths.get(args[0]));
+                    return;
+                } catch (IOException e) {
+                    System.err.println("Can't resume " + args[0] + ": " + e.getMessage());
+                }
+            }
+            SetupView screen = new SetupView();
+            SetupController controller = new SetupController(screen);
+            screen.registerObserver(controller);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,255 @@
+package cpsc2150.extendedConnectX;
+
+import cpsc2150.extendedConnectX.ai.*;
+import cpsc2150.extendedConnectX.models.*;
+import cpsc2150.extendedConnectX.persistence.GameRecordWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class is the entry point for playing many games between computer players without any screens.
+ * Games run in parallel on a fixed set of workers that each take the next game number until there are none
+ * left, and each result is written to the output file as its game ends, as CSV or as one JSON object per
+ * line. The file is flushed every second rather than after every line.
+ * <p>
+ * Options are given as {@code --name value} pairs:
+ * <pre>
+ *   --games 1000 --rows 6 --cols 7 --win 4 --players 2 --threads 64
+ *   --bots alphabeta,random --millis 50 --board bit --format csv --out results.csv --seed 1
+ *   --book books/6x7-4-2p.book --endgame 12 --endgame-cache endgames.db --record games.cxr
+ * </pre>
+ * {@code --bots} lists the player for each seat (alphabeta, mcts or random) and is repeated if there are
+ * more seats than names. Random players are seeded from {@code --seed} and the game number, so the same
+ * seed plays the same random moves. {@code --board} is fast, mem, bit, offheap or packed. {@code --book} gives the
+ * alphabeta and mcts players an {@link OpeningBook} to play from until the game leaves it.
+ * {@code --endgame} has them solve the game exactly once that many positions are empty, sharing the
+ * solved positions through a {@link PositionCache} that is also kept in {@code --endgame-cache} if given.
+ * {@code --record} appends every game, with the time of each move, to a {@link GameRecordWriter} file.
+ *
+ * @version 2.0
+ */
+public class SimulationApp {
+
+    private static final String CSV_HEADER = "game,winner,moves,millis,firstMove";
+    private static final int MAX_SEATS = IGameBoard.MAXPLAYERS;
+    private static final int ENDGAME_CACHE_SIZE = 100000;
+    private static final long ENDGAME_MAX_NODES = 2000000;
+    private static final long FLUSH_MILLIS = 1000;
+
+    /**
+     * <p>
+     * This method is the entry point for running simulations.
+     * </p>
+     *
+     * @param args
+     *            Command-line options, see the class description.
+     * @throws Exception if the output file can't be written or a game fails
+     */
+    public static void main(String[] args) throws Exception {
+        int games = Integer.parseInt(option(args, "games", "100"));
+        int rows = Integer.parseInt(option(args, "rows", "6"));
+        int cols = Integer.parseInt(option(args, "cols", "7"));
+        int numWin = Integer.parseInt(option(args, "win", "4"));
+        int players = Integer.parseInt(option(args, "players", "2"));
+        int threads = Integer.parseInt(option(args, "threads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+        String[] bots = option(args, "bots", "alphabeta,random").split(",");
+        long millis = Long.parseLong(option(args, "millis", "50"));
+        String board = option(args, "board", BoardFactory.BIT);
+        boolean json = option(args, "format", "csv").equals("json");
+        String out = option(args, "out", "results." + (json ? "jsonl" : "csv"));
+        long seed = Long.parseLong(option(args, "seed", "1"));
+        String bookFile = option(args, "book", null);
+        // lookups only read the mapped file, so every thread can share one book
+        OpeningBook book = bookFile == null ? null : OpeningBook.open(Paths.get(bookFile));
+        if (book != null && !book.matches(rows, cols, numWin, players)) {
+            throw new IllegalArgumentException(bookFile + " is a book for a different configuration");
+        }
+        int endgameEmpty = Integer.parseInt(option(args, "endgame", "0"));
+        String endgameFile = option(args, "endgame-cache", null);
+        PositionCache endgames = new PositionCache(ENDGAME_CACHE_SIZE,
+                endgameFile == null ? null : new DiskPositionStore(Paths.get(endgameFile)));
+        String recordFile = option(args, "record", null);
+        GameRecordWriter records = recordFile == null ? null : new GameRecordWriter(Paths.get(recordFile));
+
+        // random players are seeded again for every game from the run's seed, so a run can be repeated
+        long seedBase = new SplittableRandom(seed).nextLong();
+
+        // every worker keeps its own players so search tables are reused between its games; making them
+        // here means a bad --bots name stops the run before any game is played
+        IComputerPlayer[][] workerSeats = new IComputerPlayer[threads][players];
+        for (IComputerPlayer[] seat : workerSeats) {
+            for (int i = 0; i < players; i++) {
+                seat[i] = createPlayer(bots[i % bots.length], rows, cols, millis, seedBase);
+                if (book != null && !(seat[i] instanceof RandomPlayer)) {
+                    seat[i] = new BookPlayer(book, seat[i]);
+                }
+                if (endgameEmpty > 0 && !(seat[i] instanceof RandomPlayer)) {
+                    seat[i] = new EndgamePlayer(seat[i], new EndgameSolver(endgames, ENDGAME_MAX_NODES), endgameEmpty);
+                }
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicLong nextGame = new AtomicLong();
+        AtomicLong finished = new AtomicLong();
+        // the first game to fail; once it is set the workers stop taking games
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        long start = System.nanoTime();
+        try (Writer writer = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+            if (!json) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            try {
+                for (IComputerPlayer[] seat : workerSeats) {
+                    pool.execute(() -> {
+                        // and its own pool of boards, so a worker's games all reuse the same few boards
+                        BoardPool boards = new BoardPool(1);
+                        try {
+                            long game;
+                            while (failure.get() == null && (game = nextGame.getAndIncrement()) < games) {
+                                for (int i = 0; i < players; i++) {
+                                    if (seat[i] instanceof RandomPlayer) {
+                                        ((RandomPlayer) seat[i]).reseed(seedBase + game * MAX_SEATS + i);
+                                    }
+                                }
+                                IGameBoard model = boards.acquire(board, rows, cols, numWin);
+                                String line = playGame(game, model, players, seat, json, records);
+                                boards.release(model);
+                                // the main thread flushes, so a line costs a system call only when the buffer fills
+                                synchronized (writer) {
+                                    writer.write(line);
+                                    writer.write('\n');
+                                }
+                                finished.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    });
+                }
+                pool.shutdown();
+                // flush now and then so little is lost if the run is stopped
+                while (!pool.awaitTermination(FLUSH_MILLIS, TimeUnit.MILLISECONDS) && failure.get() == null) {
+                    synchronized (writer) {
+                        writer.flush();
+                    }
+                }
+            } finally {
+                // nothing may write to writer or records once they are closed
+                pool.shutdownNow();
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            endgames.close();
+            if (records != null) {
+                records.close();
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Played %d games in %.2f s (%.1f games/s), results in %s%n",
+                finished.get(), seconds, finished.get() / seconds, out);
+        if (endgameEmpty > 0) {
+            System.out.println("Endgame cache: " + endgames.getStats());
+        }
+    }
+
+    /**
+     * <p>
+     * This plays one game between the players in seats and describes how it went.
+     * </p>
+     *
+     * @param game the number of the game
+     * @param board an empty board to play on
+     * @param players the number of players
+     * @param seats the computer player for each seat
+     * @param json true for a JSON line, false for a CSV line
+     * @param records where to record the game, or null to not record it
+     * @return the result line for the game
+     * @throws IOException if the game can't be recorded
+     *
+     * @pre [board is empty] AND seats.length >= players
+     * @post [the game has been played to the end on board]
+     */
+    static String playGame(long game, IGameBoard board, int players, IComputerPlayer[] seats, boolean json,
+                           GameRecordWriter records) throws IOException {
+        long start = System.nanoTime();
+        GameEngine engine = new GameEngine(board, players);
+        // kept up to date for the whole game instead of being built again by every search
+        engine.trackThreats();
+        int[] moveMillis = new int[board.getNumRows() * board.getNumColumns()];
+        long last = start;
+        while (!engine.isGameOver()) {
+            int move = seats[engine.getCurrentPlayer()].chooseMove(engine);
+            long now = System.nanoTime();
+            moveMillis[engine.getNumMoves()] = (int) ((now - last) / 1000000);
+            last = now;
+            engine.applyMove(move);
+        }
+        if (records != null) {
+            records.write(engine, moveMillis);
+        }
+        long millis = (System.nanoTime() - start) / 1000000;
+        String winner = engine.isTie() ? "tie" : Character.toString(PlayerTokens.tokenAt(engine.getWinner()));
+        int firstMove = engine.getMove(0);
+        if (json) {
+            return "{\"game\":" + game + ",\"winner\":\"" + winner + "\",\"moves\":" + engine.getNumMoves()
+                    + ",\"millis\":" + millis + ",\"firstMove\":" + firstMove + "}";
+        }
+        return game + "," + winner + "," + engine.getNumMoves() + "," + millis + "," + firstMove;
+    }
+
+    /**
+     * <p>
+     * This creates the named computer player.
+     * </p>
+     *
+     * @return a new alphabeta, mcts or random player
+     * @pre millis > 0
+     * @post [the player is ready for games with rows x cols boards]
+     * @throws IllegalArgumentException if type is not alphabeta, mcts or random
+     */
+    static IComputerPlayer createPlayer(String type, int rows, int cols, long millis, long seed) {
+        switch (type) {
+            case "alphabeta":
+                return new AlphaBetaPlayer(rows, cols, millis);
+            case "mcts":
+                // games already run in parallel, so each search gets one thread
+                return new MCTSPlayer(millis, 1, new RandomRolloutPolicy());
+            case "random":
+                return new RandomPlayer(seed);
+            default:
+                throw new IllegalArgumentException("Unknown computer player: " + type);
+        }
+    }
+
+    /**
+     * <p>
+     * This finds the value of an option.
+     * </p>
+     *
+     * @return the value after {@code --name} in args, or def if it isn't there
+     * @post args = #args
+     */
+    private static String option(String[] args, String name, String def) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--" + name)) {
+                return args[i + 1];
+            }
+        }
+        return def;
+    }
+}
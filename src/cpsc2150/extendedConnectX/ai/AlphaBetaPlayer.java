@@ -0,0 +1,396 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import java.util.Arrays;
+
+/**
+ * This class is a computer player that searches the game tree with negamax and alpha-beta pruning.
+ * <p>
+ * The search deepens one ply at a time until the time budget runs out and plays the best move of the
+ * deepest search that finished. Columns are tried from the center outwards, after the best move the
+ * transposition table remembers for the position. Games with more than two players are searched as
+ * "paranoid": every other player is treated as one opponent trying to beat the player who is moving,
+ * which turns the game back into two teams so negamax still applies.
+ * <p>
+ * Scores are always from the point of view of the team whose turn it is, so a child's score is negated
+ * only when the turn passes to the other team.
+ *
+ * <p>
+ * The transposition table is sized to how many positions a search can look at in its time budget, since a
+ * bigger one would never fill, so a player for quick simulations takes far less memory than one for the
+ * game screen. A player keeps its table between moves and between games of the same configuration.
+ *
+ * @invariant timeBudget > 0 AND [ttKeys, ttScores, ttData all have 2^tableBits entries]
+ */
+public class AlphaBetaPlayer implements IComputerPlayer {
+
+    private static final int WIN_SCORE = 1000000000;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    // scores above this are wins found at some ply and have to be adjusted when moved through the table
+    private static final int WIN_THRESHOLD = WIN_SCORE - IGameBoard.MAXROWS * IGameBoard.MAXCOLUMNS;
+    // the table packs the depth into 8 bits
+    private static final int MAX_DEPTH = 255;
+    // a search looks at a few thousand positions a millisecond, and the table needs about one entry for each
+    private static final int NODES_PER_MILLI = 2048;
+    private static final int MIN_TABLE_BITS = 10;
+    private static final int MAX_TABLE_BITS = 20;
+    private static final int EXACT = 0, LOWER = 1, UPPER = 2;
+    // how many nodes to search between checks of the clock
+    private static final int CLOCK_MASK = 1023;
+
+    private final long timeBudget;
+    private final int[] centerOrder;
+    private final int[][] plyMoves;
+
+    // transposition table keyed by the board's zobrist key, where ttData packs the depth, bound type and best move of an entry
+    private final int tableBits;
+    private final long[] ttKeys;
+    private final int[] ttScores;
+    private final int[] ttData;
+
+    private GameEngine game;
+    private IGameBoard board;
+    private ThreatTracker threats;
+    private int rootPlayer;
+    private long deadline;
+    private boolean timeUp;
+    private long nodes;
+    private long searchTime;
+    private int lastDepth;
+    private int rootBestMove;
+    private int rootScore;
+
+    /**
+     * <p>
+     * This creates a computer player for a configuration, with a table sized by tableBitsFor.
+     * </p>
+     *
+     * @param rows the number of rows on the gameboard
+     * @param cols the number of columns on the gameboard
+     * @param timeBudgetMillis how many milliseconds the player can spend picking each move
+     *
+     * @pre MINROWS <= rows <= MAXROWS AND MINCOLUMNS <= cols <= MAXCOLUMNS AND timeBudgetMillis > 0
+     * @post [the player is ready to pick moves for games with this configuration] AND
+     *       tableBits = tableBitsFor(rows, cols, timeBudgetMillis)
+     */
+    public AlphaBetaPlayer(int rows, int cols, long timeBudgetMillis) {
+        this(rows, cols, timeBudgetMillis, tableBitsFor(rows, cols, timeBudgetMillis));
+    }
+
+    /**
+     * <p>
+     * This creates a computer player for a configuration with a table of 2^tableBits entries, each of which
+     * takes 16 bytes.
+     * </p>
+     *
+     * @param rows the number of rows on the gameboard
+     * @param cols the number of columns on the gameboard
+     * @param timeBudgetMillis how many milliseconds the player can spend picking each move
+     * @param tableBits the log2 of the number of entries in the transposition table
+     *
+     * @pre MINROWS <= rows <= MAXROWS AND MINCOLUMNS <= cols <= MAXCOLUMNS AND timeBudgetMillis > 0 AND
+     *      1 <= tableBits <= 30
+     * @post [the player is ready to pick moves for games with this configuration] AND this.tableBits = tableBits
+     */
+    public AlphaBetaPlayer(int rows, int cols, long timeBudgetMillis, int tableBits) {
+        this.timeBudget = timeBudgetMillis * 1000000L;
+        this.tableBits = tableBits;
+        this.ttKeys = new long[1 << tableBits];
+        this.ttScores = new int[1 << tableBits];
+        this.ttData = new int[1 << tableBits];
+        this.rootPlayer = -1;
+
+        // sort the columns by their distance from the center, keeping left before right on ties
+        centerOrder = new int[cols];
+        for (int i = 0; i < cols; i++) {
+            int j = i;
+            while (j > 0 && Math.abs(2 * centerOrder[j - 1] - (cols - 1)) > Math.abs(2 * i - (cols - 1))) {
+                centerOrder[j] = centerOrder[j - 1];
+                j--;
+            }
+            centerOrder[j] = i;
+        }
+        plyMoves = new int[MAX_DEPTH + 1][cols];
+    }
+
+    /**
+     * returns the table size, as a log2, that a search with this budget can make use of: about one entry for
+     * every position it looks at, but no more than the board has positions, from 2^10 to 2^20 entries
+     * @param rows the number of rows on the gameboard
+     * @param cols the number of columns on the gameboard
+     * @param timeBudgetMillis how many milliseconds the player can spend picking each move
+     * @return the log2 of the number of entries
+     * @pre timeBudgetMillis > 0
+     * @post MIN_TABLE_BITS <= tableBitsFor <= MAX_TABLE_BITS
+     */
+    public static int tableBitsFor(int rows, int cols, long timeBudgetMillis) {
+        long entries = timeBudgetMillis * NODES_PER_MILLI;
+        int bits = 64 - Long.numberOfLeadingZeros(entries - 1);
+        // each cell is empty or holds one of a few tokens, so a small board runs out of positions first
+        bits = Math.min(bits, 2 * rows * cols);
+        return Math.max(MIN_TABLE_BITS, Math.min(MAX_TABLE_BITS, bits));
+    }
+
+    @Override
+    public int chooseMove(GameEngine g) {
+        long start = System.nanoTime();
+        game = g;
+        board = g.getBoard();
+        // callers playing a whole game keep a tracker for all of it; otherwise one is made for this search only
+        boolean attached = !g.isTrackingThreats();
+        threats = g.trackThreats();
+        try {
+            return search(start);
+        } finally {
+            if (attached) {
+                g.stopTrackingThreats();
+            }
+            game = null;
+            board = null;
+            threats = null;
+        }
+    }
+
+    /**
+     * deepens the search until the time runs out and returns the best move of the deepest one that finished
+     */
+    private int search(long start) {
+        GameEngine g = game;
+        if (g.getCurrentPlayer() != rootPlayer) {
+            // table scores are relative to the paranoid teams, which depend on who is searching
+            Arrays.fill(ttKeys, 0);
+            rootPlayer = g.getCurrentPlayer();
+        }
+        deadline = start + timeBudget;
+        timeUp = false;
+        nodes = 0;
+        lastDepth = 0;
+
+        int empty = board.getNumRows() * board.getNumColumns() - board.getNumFilled();
+        int maxDepth = Math.min(empty, MAX_DEPTH);
+        int bestMove = firstLegal();
+        for (int depth = 1; depth <= maxDepth && !timeUp; depth++) {
+            negamax(depth, 0, -INFINITY, INFINITY);
+            if (!timeUp) {
+                bestMove = rootBestMove;
+                lastDepth = depth;
+                // once the result is forced there is no point looking deeper
+                if (Math.abs(rootScore) > WIN_THRESHOLD) {
+                    break;
+                }
+            }
+        }
+        searchTime = System.nanoTime() - start;
+        return bestMove;
+    }
+
+    /**
+     * returns how many positions per second the last search looked at
+     * @return the nodes per second of the last search
+     * @post self = #self
+     */
+    public double getNodesPerSecond() {
+        return searchTime == 0 ? 0 : nodes * 1e9 / searchTime;
+    }
+
+    /**
+     * returns how many positions the last search looked at
+     * @return the number of nodes in the last search
+     * @post self = #self
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * returns the depth of the deepest search that finished during the last move
+     * @return the depth of the last finished search
+     * @post self = #self
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * returns the score of the current position for the team whose turn it is
+     * @param depth the number of plies left to search
+     * @param ply the number of plies from the root
+     * @param alpha the score the current team is already guaranteed
+     * @param beta the score the other team is already guaranteed, negated
+     * @return the score of the position, or 0 if the search ran out of time
+     * @post game = #game AND [if ply = 0 then rootBestMove and rootScore hold the best move and its score]
+     */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        nodes++;
+        if ((nodes & CLOCK_MASK) == 0
+                && (System.nanoTime() > deadline || Thread.currentThread().isInterrupted())) {
+            timeUp = true;
+        }
+        if (timeUp) {
+            return 0;
+        }
+        int player = game.getCurrentPlayer();
+        if (game.getWinner() != GameEngine.NO_WINNER) {
+            int score = WIN_SCORE - ply;
+            return sameTeam(game.getWinner(), player) ? score : -score;
+        }
+        if (game.isTie()) {
+            return 0;
+        }
+        if (depth == 0) {
+            int score = evaluate();
+            return player == rootPlayer ? score : -score;
+        }
+
+        // see if this position has already been searched, but always search the root so it has a best move
+        long key = board.getZobristKey();
+        int slot = slotOf(key);
+        int ttMove = -1;
+        if (ttKeys[slot] == key) {
+            int data = ttData[slot];
+            ttMove = data >>> 16;
+            if (ply > 0 && (data & 0xFF) >= depth) {
+                int score = fromTable(ttScores[slot], ply);
+                int bound = (data >>> 8) & 0xFF;
+                if (bound == EXACT) {
+                    return score;
+                } else if (bound == LOWER) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = plyMoves[ply];
+        int numMoves = orderMoves(moves, ttMove);
+        int alphaStart = alpha;
+        int best = -INFINITY;
+        int bestMove = moves[0];
+        for (int i = 0; i < numMoves && alpha < beta; i++) {
+            int c = moves[i];
+            game.applyMove(c);
+            int next = game.getCurrentPlayer();
+            int score;
+            if (sameTeam(player, next)) {
+                score = negamax(depth - 1, ply + 1, alpha, beta);
+            } else {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            }
+            game.undoMove();
+            if (timeUp) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = c;
+            }
+            alpha = Math.max(alpha, score);
+        }
+
+        if (ply == 0) {
+            rootBestMove = bestMove;
+            rootScore = best;
+        }
+        int bound = best <= alphaStart ? UPPER : (best >= beta ? LOWER : EXACT);
+        ttKeys[slot] = key;
+        ttScores[slot] = toTable(best, ply);
+        ttData[slot] = (bestMove << 16) | (bound << 8) | depth;
+        return best;
+    }
+
+    /**
+     * fills moves with the legal columns, the table's best move first and then from the center outwards
+     * @param moves the array to fill
+     * @param ttMove the best move from the table, or -1 if there is none
+     * @return the number of legal moves
+     * @pre moves.length >= board.getNumColumns()
+     * @post self = #self
+     */
+    private int orderMoves(int[] moves, int ttMove) {
+        int count = 0;
+        if (ttMove >= 0 && board.checkIfFree(ttMove)) {
+            moves[count] = ttMove;
+            count++;
+        }
+        for (int c : centerOrder) {
+            if (c != ttMove && board.checkIfFree(c)) {
+                moves[count] = c;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * returns the most central column that is not full
+     * @return a legal column
+     * @pre game.isGameOver() = false
+     * @post self = #self
+     */
+    private int firstLegal() {
+        for (int c : centerOrder) {
+            if (board.checkIfFree(c)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * returns a heuristic score of the board for the root player. Every line of getNumToWin() positions
+     * that only one player has tokens in is worth the square of that player's count, positive for the
+     * root player and negative for everyone else. The game's threat tracker keeps this sum up to date as
+     * moves are made, so it costs nothing to read
+     * @return the score of the board for the root player
+     * @post self = #self
+     */
+    private int evaluate() {
+        return threats.score(rootPlayer);
+    }
+
+    /**
+     * returns true if players a and b are on the same team in the paranoid search
+     * @post sameTeam = [a and b are both the root player or both not the root player]
+     */
+    private boolean sameTeam(int a, int b) {
+        return (a == rootPlayer) == (b == rootPlayer);
+    }
+
+    /**
+     * returns the table slot for a position's hash
+     * @post 0 <= slotOf < 2^tableBits
+     */
+    private int slotOf(long hash) {
+        return (int) (hash >>> (64 - tableBits));
+    }
+
+    /**
+     * turns a win score measured from the root into one measured from the current position
+     * @post [wins are stored as distance from this position so they stay right when reached at another ply]
+     */
+    private static int toTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score + ply;
+        } else if (score < -WIN_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * turns a win score from the table back into one measured from the root
+     * @post fromTable(toTable(score, ply), ply) = score
+     */
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score - ply;
+        } else if (score < -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+}
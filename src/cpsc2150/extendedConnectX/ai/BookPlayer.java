@@ -0,0 +1,35 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+
+/**
+ * This class is a computer player that plays from an {@link OpeningBook} while the game is still in the book
+ * and lets another computer player pick once it leaves, so the expensive early searches are done ahead of time
+ *
+ * @invariant [book matches the configuration of the games this player is used in]
+ */
+public class BookPlayer implements IComputerPlayer {
+    private final OpeningBook book;
+    private final IComputerPlayer fallback;
+
+    /**
+     * <p>
+     * This creates a player that uses book before fallback.
+     * </p>
+     *
+     * @param book the opening book for the configuration
+     * @param fallback the player to use for positions that are not in the book
+     *
+     * @post [the player plays book moves when there are any and fallback's moves otherwise]
+     */
+    public BookPlayer(OpeningBook book, IComputerPlayer fallback) {
+        this.book = book;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public int chooseMove(GameEngine game) {
+        int move = book.lookup(game);
+        return move >= 0 ? move : fallback.chooseMove(game);
+    }
+}
@@ -0,0 +1,181 @@
+package cpsc2150.extendedConnectX.ai;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class stores solved positions in a file that is only ever appended to, so results survive between
+ * runs and a crash can at worst lose the record being written. Every record is a long key and an int value,
+ * big-endian. When the file is opened it is scanned once to build an in-memory hash index from key to
+ * record number, and lookups then read the value straight from the file.
+ * <p>
+ * All methods are synchronized so one store can be shared by every simulation thread.
+ *
+ * @invariant [every key in the index is in the file at its record number] AND records = [complete records in the file]
+ * @invariant size = [the number of keys in the index]
+ * @invariant slots.length is a power of two AND size <= slots.length * MAX_LOAD
+ *
+ * @correspondence self = [the key and value of every record in the file]
+ */
+public class DiskPositionStore implements Closeable {
+    public static final int RECORD_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int START_CAPACITY = 1024;
+    private static final double MAX_LOAD = 0.5;
+
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private long[] keys;
+    // the record number of each key plus one, so 0 marks an empty slot
+    private int[] slots;
+    private int size;
+    private long records;
+
+    /**
+     * Constructor that will open or create a store and index the records already in it
+     * @param file the file to keep the records in
+     * @throws IOException if the file can't be opened or read
+     * @post [every complete record in file is indexed]
+     */
+    public DiskPositionStore(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.keys = new long[START_CAPACITY];
+        this.slots = new int[START_CAPACITY];
+        this.size = 0;
+        // a record cut short by a crash is ignored and later overwritten
+        this.records = channel.size() / RECORD_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+        long position = 0;
+        for (long i = 0; i < records; ) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (records - i) * RECORD_BYTES));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Position store shrank while it was being read");
+                }
+            }
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_BYTES) {
+                long key = buffer.getLong();
+                buffer.getInt();
+                index(key, (int) i);
+                i++;
+            }
+            position = i * RECORD_BYTES;
+        }
+    }
+
+    /**
+     * returns the value stored for a key
+     * @param key the key to look up
+     * @return the value, or -1 if key has not been stored
+     * @throws IOException if the file can't be read
+     * @post self = #self
+     */
+    public synchronized int get(long key) throws IOException {
+        int slot = find(key);
+        if (slots[slot] == 0) {
+            return -1;
+        }
+        record.clear().limit(Integer.BYTES);
+        long position = (long) (slots[slot] - 1) * RECORD_BYTES + Long.BYTES;
+        while (record.hasRemaining()) {
+            if (channel.read(record, position + record.position()) < 0) {
+                throw new EOFException("Position store shrank while it was being read");
+            }
+        }
+        return record.getInt(0);
+    }
+
+    /**
+     * appends a key and its value, unless the key is already stored
+     * @param key the key to store
+     * @param value the value for key
+     * @pre value >= 0
+     * @throws IOException if the file can't be written
+     * @post [get(key) returns value if key was not stored before, or its old value if it was]
+     */
+    public synchronized void put(long key, int value) throws IOException {
+        if (slots[find(key)] != 0) {
+            return;
+        }
+        record.clear();
+        record.putLong(key).putInt(value).flip();
+        long position = records * RECORD_BYTES;
+        while (record.hasRemaining()) {
+            channel.write(record, position + record.position());
+        }
+        index(key, (int) records);
+        records++;
+    }
+
+    /**
+     * returns the number of keys stored
+     * @return the number of distinct keys in the file
+     * @post self = #self
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * closes the file
+     * @throws IOException if the file can't be closed
+     * @post [the store can't be used again]
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * adds key to the index, pointing at recordNumber
+     * @post [find(key) is the slot of key] AND size = #size + 1 if key was new
+     */
+    private void index(long key, int recordNumber) {
+        if (size + 1 > slots.length * MAX_LOAD) {
+            grow();
+        }
+        int slot = find(key);
+        if (slots[slot] == 0) {
+            size++;
+        }
+        keys[slot] = key;
+        slots[slot] = recordNumber + 1;
+    }
+
+    /**
+     * returns the slot key is in, or the empty slot where it would go
+     */
+    private int find(long key) {
+        int mask = slots.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (slots[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * doubles the index and puts every key back in
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldSlots.length * 2];
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+
+/**
+ * This class is a computer player that lets another computer player pick moves until only a few empty
+ * positions are left, and then plays the moves of an exact {@link EndgameSolver}
+ *
+ * @invariant maxEmpty >= 0
+ */
+public class EndgamePlayer implements IComputerPlayer {
+    private final IComputerPlayer fallback;
+    private final EndgameSolver solver;
+    private final int maxEmpty;
+
+    /**
+     * <p>
+     * This creates a player that uses solver once the board is nearly full.
+     * </p>
+     *
+     * @param fallback the player to use while there are more than maxEmpty empty positions, or if the
+     *                 solver gives up
+     * @param solver the solver for the endgame
+     * @param maxEmpty the most empty positions the solver is used for
+     *
+     * @pre maxEmpty >= 0
+     * @post [the player solves positions with at most maxEmpty empty positions and asks fallback otherwise]
+     */
+    public EndgamePlayer(IComputerPlayer fallback, EndgameSolver solver, int maxEmpty) {
+        this.fallback = fallback;
+        this.solver = solver;
+        this.maxEmpty = maxEmpty;
+    }
+
+    @Override
+    public int chooseMove(GameEngine game) {
+        IGameBoard board = game.getBoard();
+        if (board.getNumRows() * board.getNumColumns() - board.getNumFilled() <= maxEmpty) {
+            int result = solver.solve(game);
+            if (result >= 0) {
+                return EndgameSolver.moveOf(result);
+            }
+        }
+        return fallback.chooseMove(game);
+    }
+}
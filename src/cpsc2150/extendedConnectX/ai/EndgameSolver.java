@@ -0,0 +1,224 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This class solves positions near the end of a game exactly, searching every move to the end of the game
+ * instead of stopping at a depth and guessing. Like {@link AlphaBetaPlayer}, games with more than two
+ * players are solved paranoid: the player to move against everyone else.
+ * <p>
+ * Solved positions are kept in a {@link PositionCache}, keyed by the zobrist key of the board salted with
+ * the number to win and the number of players, so the same endgame is only solved once across games and,
+ * with a disk store, across runs. A search that looks at more than maxNodes positions gives up, so a
+ * position with too many empty cells never stalls a game. An interrupted search gives up the same way.
+ * <p>
+ * Inside a search, positions are kept in a table of primitive arrays like {@link AlphaBetaPlayer}'s, with
+ * one entry per slot that a newer position replaces. Entries are stamped with the search that stored them,
+ * so a new search doesn't have to clear the table.
+ *
+ * @invariant [cache only holds results of finished searches] AND [tableKeys, tableData have tableMask + 1
+ *            entries] AND 0 < generation < 2^GENERATION_BITS
+ */
+public class EndgameSolver {
+    /**
+     * the outcomes a solved position can have for the player to move
+     */
+    public static final int LOSS = 0, DRAW = 1, WIN = 2;
+    private static final int EXACT = 0, LOWER = 1, UPPER = 2;
+    // how often, in positions, the search checks whether it has been interrupted
+    private static final int CLOCK_MASK = 1023;
+    // the table is sized to the search's node limit, but no bigger than this
+    private static final int MAX_TABLE_BITS = 18;
+    private static final int MIN_TABLE_BITS = 10;
+    // tableData packs the generation above the bound type and score, which take 4 bits
+    private static final int GENERATION_BITS = 28;
+
+    private final PositionCache cache;
+    private final long maxNodes;
+    // scores of positions inside the current search, which depend on who the root player is
+    private final long[] tableKeys;
+    private final int[] tableData;
+    private final int tableMask;
+    private int generation;
+    // the salt of the configuration solved last, see keyOf
+    private int saltConfig = -1;
+    private long salt;
+
+    private GameEngine game;
+    private IGameBoard board;
+    private int rootPlayer;
+    private long nodes;
+    private boolean aborted;
+    private int rootBestMove;
+
+    /**
+     * <p>
+     * This creates a solver.
+     * </p>
+     *
+     * @param cache where solved positions are remembered between searches
+     * @param maxNodes the most positions one search may look at before giving up
+     *
+     * @pre maxNodes > 0
+     * @post [the solver is ready to solve positions of any configuration]
+     */
+    public EndgameSolver(PositionCache cache, long maxNodes) {
+        this.cache = cache;
+        this.maxNodes = maxNodes;
+        int bits = 64 - Long.numberOfLeadingZeros(maxNodes - 1);
+        bits = Math.max(MIN_TABLE_BITS, Math.min(MAX_TABLE_BITS, bits));
+        this.tableKeys = new long[1 << bits];
+        this.tableData = new int[1 << bits];
+        this.tableMask = (1 << bits) - 1;
+    }
+
+    /**
+     * solves the position of game for the player to move
+     * @param g the game to solve
+     * @return (move << 2) | outcome, where move is a best column and outcome is LOSS, DRAW or WIN for the
+     * player to move, or -1 if the search gave up
+     * @pre g.isGameOver() = false
+     * @post g = #g
+     */
+    public int solve(GameEngine g) {
+        long key = keyOf(g);
+        int cached = cache.get(key);
+        if (cached >= 0) {
+            return cached;
+        }
+        game = g;
+        board = g.getBoard();
+        // callers playing a whole game keep a tracker for all of it; otherwise one is made for this search only
+        boolean attached = !g.isTrackingThreats();
+        g.trackThreats();
+        rootPlayer = g.getCurrentPlayer();
+        nodes = 0;
+        aborted = false;
+        if (++generation == 1 << GENERATION_BITS) {
+            Arrays.fill(tableData, 0);
+            generation = 1;
+        }
+        int score;
+        try {
+            score = search(0, -1, 1);
+        } finally {
+            if (attached) {
+                g.stopTrackingThreats();
+            }
+            game = null;
+            board = null;
+        }
+        if (aborted) {
+            return -1;
+        }
+        int result = (rootBestMove << 2) | (score + 1);
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * returns the column of a result from solve
+     * @pre result >= 0
+     */
+    public static int moveOf(int result) {
+        return result >>> 2;
+    }
+
+    /**
+     * returns the outcome of a result from solve
+     * @pre result >= 0
+     */
+    public static int outcomeOf(int result) {
+        return result & 3;
+    }
+
+    /**
+     * searches the position of game to the end
+     * @return 1 if the team of the player to move wins, 0 for a tie, -1 if it loses, or 0 if the search gave up
+     * @post game = #game AND [if ply = 0 then rootBestMove is a best move]
+     */
+    private int search(int ply, int alpha, int beta) {
+        nodes++;
+        if (nodes > maxNodes || ((nodes & CLOCK_MASK) == 0 && Thread.currentThread().isInterrupted())) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (board.checkTie()) {
+            return 0;
+        }
+        long key = board.getZobristKey();
+        int slot = (int) (key ^ (key >>> 32)) & tableMask;
+        int entry = tableData[slot];
+        if (ply > 0 && tableKeys[slot] == key && entry >>> 4 == generation) {
+            int score = (entry & 3) - 1;
+            int bound = entry >>> 2 & 3;
+            if (bound == EXACT || (bound == LOWER && score >= beta) || (bound == UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        int player = game.getCurrentPlayer();
+        int alphaStart = alpha;
+        int best = -2;
+        int cols = board.getNumColumns();
+        // from the center out, since central moves are usually the best
+        for (int i = 0; i < cols && alpha < beta; i++) {
+            int c = cols / 2 + ((i & 1) == 0 ? i / 2 : -(i + 1) / 2);
+            if (c < 0 || c >= cols || !board.checkIfFree(c)) {
+                continue;
+            }
+            int score;
+            if (game.applyMove(c)) {
+                score = 1;
+            } else if (sameTeam(player, game.getCurrentPlayer())) {
+                score = search(ply + 1, alpha, beta);
+            } else {
+                score = -search(ply + 1, -beta, -alpha);
+            }
+            game.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (ply == 0) {
+                    rootBestMove = c;
+                }
+            }
+            alpha = Math.max(alpha, score);
+        }
+
+        int bound = best <= alphaStart ? UPPER : (best >= beta ? LOWER : EXACT);
+        tableKeys[slot] = key;
+        tableData[slot] = generation << 4 | bound << 2 | (best + 1);
+        return best;
+    }
+
+    /**
+     * returns true if players a and b are on the same team in the paranoid search
+     * @post sameTeam = [a and b are both the root player or both not the root player]
+     */
+    private boolean sameTeam(int a, int b) {
+        return (a == rootPlayer) == (b == rootPlayer);
+    }
+
+    /**
+     * returns the cache key of g's position. The zobrist tables only depend on the board's size, so the
+     * number to win and the number of players are mixed in to keep other configurations apart. The salt is
+     * only worked out again when the configuration changes
+     */
+    private long keyOf(GameEngine g) {
+        IGameBoard b = g.getBoard();
+        int config = b.getNumToWin() << 8 | g.getNumPlayers();
+        if (config != saltConfig) {
+            salt = new SplittableRandom(config).nextLong();
+            saltConfig = config;
+        }
+        return b.getZobristKey() ^ salt;
+    }
+}
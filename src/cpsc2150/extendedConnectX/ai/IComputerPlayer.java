@@ -0,0 +1,21 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+
+/**
+ * Interface for computer players, which pick a column to play in for whichever player's turn it is
+ *
+ * @constraints [a computer player only looks at the game it is given and leaves it how it found it] AND
+ * [if the thread asking for a move is interrupted the player stops searching soon and returns a legal move]
+ */
+public interface IComputerPlayer {
+
+    /**
+     * This method will pick the column the current player of game should play in
+     * @pre game.isGameOver() = false
+     * @param game the game that is being played
+     * @post [returns a column c where game.isLegalMove(c)] AND game = #game
+     * @return the column to play in
+     */
+    public int chooseMove(GameEngine game);
+}
@@ -0,0 +1,24 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import java.util.SplittableRandom;
+
+/**
+ * Interface for the policies a Monte Carlo player uses to pick moves when it plays a game out to the end
+ *
+ * @constraints [a policy is called from many threads at once, so it must not keep any state between calls]
+ */
+public interface IRolloutPolicy {
+
+    /**
+     * This method will pick the next move of a playout
+     * @pre game.isGameOver() = false AND numLegal > 0 AND legal[0...numLegal - 1] = [the legal columns of game]
+     * @param game the game being played out
+     * @param legal the legal columns
+     * @param numLegal how many legal columns there are
+     * @param random the random number generator of the thread doing the playout
+     * @post [returns one of legal[0...numLegal - 1]] AND game = #game
+     * @return the column to play in
+     */
+    public int pickMove(GameEngine game, int[] legal, int numLegal, SplittableRandom random);
+}
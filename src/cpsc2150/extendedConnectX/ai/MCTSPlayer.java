@@ -0,0 +1,327 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * This class is a computer player that uses Monte Carlo tree search, for boards that are too big for
+ * {@link AlphaBetaPlayer} to see far enough ahead.
+ * <p>
+ * Every thread of a work-stealing pool grows the same tree at once. Each thread plays on its own copy of the
+ * board, going down the tree by UCT, adding the children of the node it reaches, playing the game out with
+ * the rollout policy, and then taking every move back. Node statistics are atomic counters, so no locks are
+ * needed. While a thread is below a node that node counts a virtual loss, which steers the other threads
+ * down different paths.
+ * <p>
+ * Each node keeps score for the player who made its move, so with more than two players every player picks
+ * the child that is best for themselves.
+ * <p>
+ * All players search in one pool with a thread per core, so players that are done with never leave idle
+ * threads behind. The pool's threads are daemons, so it never has to be shut down.
+ *
+ * @invariant timeBudget > 0 AND numThreads > 0
+ */
+public class MCTSPlayer implements IComputerPlayer {
+
+    private static final double EXPLORATION = Math.sqrt(2);
+    // shared by every player, so players searching at the same time split the cores between them
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final long timeBudget;
+    private final int numThreads;
+    private final IRolloutPolicy rollout;
+
+    private long lastPlayouts;
+    private long lastTime;
+
+    /**
+     * <p>
+     * This creates a player that uses every core and random playouts.
+     * </p>
+     *
+     * @param timeBudgetMillis how many milliseconds the player can spend picking each move
+     *
+     * @pre timeBudgetMillis > 0
+     * @post [the player searches with one thread per core and random playouts]
+     */
+    public MCTSPlayer(long timeBudgetMillis) {
+        this(timeBudgetMillis, Runtime.getRuntime().availableProcessors(), new RandomRolloutPolicy());
+    }
+
+    /**
+     * <p>
+     * This creates a player with a chosen number of threads and rollout policy.
+     * </p>
+     *
+     * @param timeBudgetMillis how many milliseconds the player can spend picking each move
+     * @param threads how many threads search at once, of which at most one per core run at a time
+     * @param policy how moves are picked during playouts
+     *
+     * @pre timeBudgetMillis > 0 AND threads > 0
+     * @post [the player searches with threads threads and policy for playouts]
+     */
+    public MCTSPlayer(long timeBudgetMillis, int threads, IRolloutPolicy policy) {
+        this.timeBudget = timeBudgetMillis * 1000000L;
+        this.numThreads = threads;
+        this.rollout = policy;
+    }
+
+    @Override
+    public int chooseMove(GameEngine game) {
+        long start = System.nanoTime();
+        long deadline = start + timeBudget;
+        Node root = new Node(null, -1, -1);
+        // set if whoever asked for the move gives up on it, to stop the search threads early
+        AtomicBoolean stop = new AtomicBoolean(false);
+
+        // every thread gets its own copy of the game to play on
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            GameEngine copy = copyOf(game);
+            long seed = start * 31 + t;
+            tasks.add(POOL.submit(() -> search(root, copy, deadline, stop,
+                    new SplittableRandom(seed))));
+        }
+        long playouts = 0;
+        boolean interrupted = false;
+        for (ForkJoinTask<Long> task : tasks) {
+            // join would hide an interrupt until the deadline, so wait in a way that sees it
+            while (true) {
+                try {
+                    playouts += task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stop.set(true);
+                } catch (ExecutionException e) {
+                    // a search thread failing is a bug, so stop the others and pass it on
+                    stop.set(true);
+                    throw new IllegalStateException("MCTS search failed", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        lastPlayouts = playouts;
+        lastTime = System.nanoTime() - start;
+
+        if (root.children == null) {
+            // no playout finished in time, so fall back to any legal move
+            int[] legal = new int[game.getBoard().getNumColumns()];
+            game.getLegalMoves(legal);
+            return legal[0];
+        }
+
+        // the most visited move is the one the search trusts most
+        Node best = null;
+        for (Node child : root.children) {
+            if (best == null || child.visits.get() > best.visits.get()) {
+                best = child;
+            }
+        }
+        return best.move;
+    }
+
+    /**
+     * returns how many games were played out per second during the last move
+     * @return the playouts per second of the last search
+     * @post self = #self
+     */
+    public double getPlayoutsPerSecond() {
+        return lastTime == 0 ? 0 : lastPlayouts * 1e9 / lastTime;
+    }
+
+    /**
+     * returns how many threads the player searches with
+     * @return the number of threads
+     * @post getNumThreads = numThreads
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * measures how well the search scales by picking a move in game with 1, 2, 4, ... threads up to the
+     * number of cores and comparing the playout rates
+     * @param game the game to pick a move in
+     * @param millis how long each measurement lasts
+     * @return for each thread count tried, in order, the playout rate divided by the thread count times
+     * the one thread playout rate
+     * @pre game.isGameOver() = false AND millis > 0
+     * @post game = #game
+     */
+    public static double[] measureScaling(GameEngine game, long millis) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int steps = 32 - Integer.numberOfLeadingZeros(cores);
+        double[] efficiency = new double[steps];
+        double single = 0;
+        for (int i = 0; i < steps; i++) {
+            int threads = 1 << i;
+            MCTSPlayer player = new MCTSPlayer(millis, threads, new RandomRolloutPolicy());
+            player.chooseMove(game);
+            if (i == 0) {
+                single = player.getPlayoutsPerSecond();
+            }
+            efficiency[i] = player.getPlayoutsPerSecond() / (threads * single);
+        }
+        return efficiency;
+    }
+
+    /**
+     * grows the tree from root until the deadline, playing on game
+     * @param root the root of the shared tree
+     * @param game this thread's copy of the game at the root
+     * @param deadline the System.nanoTime() to stop at
+     * @param stop set to stop the search before the deadline
+     * @param random this thread's random number generator
+     * @return the number of playouts this thread did
+     * @pre game.isGameOver() = false
+     * @post game = #game
+     */
+    private long search(Node root, GameEngine game, long deadline, AtomicBoolean stop, SplittableRandom random) {
+        IGameBoard board = game.getBoard();
+        int[] legal = new int[board.getNumColumns()];
+        long playouts = 0;
+        while (System.nanoTime() < deadline && !stop.get()) {
+            // go down the tree until reaching a node no thread has played out yet, or the end of the game
+            Node node = root;
+            int treeMoves = 0;
+            while (!game.isGameOver()) {
+                Node[] children = node.children;
+                if (children == null) {
+                    children = node.expand(game, legal);
+                }
+                node = select(node, children);
+                node.virtualLosses.incrementAndGet();
+                game.applyMove(node.move);
+                treeMoves++;
+                if (node.visits.get() == 0) {
+                    break;
+                }
+            }
+
+            // play the rest of the game out
+            int rolloutMoves = 0;
+            while (!game.isGameOver()) {
+                int numLegal = game.getLegalMoves(legal);
+                game.applyMove(rollout.pickMove(game, legal, numLegal, random));
+                rolloutMoves++;
+            }
+            int winner = game.getWinner();
+            for (int i = 0; i < rolloutMoves + treeMoves; i++) {
+                game.undoMove();
+            }
+
+            // a win is worth 2 half points and a tie 1 to the player who made each move on the path
+            for (Node n = node; n != root; n = n.parent) {
+                n.halfPoints.addAndGet(winner == n.player ? 2 : (winner == GameEngine.NO_WINNER ? 1 : 0));
+                n.visits.incrementAndGet();
+                n.virtualLosses.decrementAndGet();
+            }
+            root.visits.incrementAndGet();
+            playouts++;
+        }
+        return playouts;
+    }
+
+    /**
+     * picks the child of parent to go down to, trying unvisited children first and then the one with the
+     * best UCT value, where virtual losses count as visits that lost
+     * @param parent the node being left
+     * @param children the children of parent
+     * @return the chosen child
+     * @pre children.length > 0
+     * @post self = #self
+     */
+    private static Node select(Node parent, Node[] children) {
+        double logVisits = Math.log(Math.max(1, parent.visits.get() + parent.virtualLosses.get()));
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            int visits = child.visits.get() + child.virtualLosses.get();
+            if (visits == 0) {
+                return child;
+            }
+            double value = child.halfPoints.get() / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * returns a copy of game on a new bitboard, made by replaying its moves
+     * @param game the game to copy
+     * @return a game in the same position as game
+     * @post game = #game
+     */
+    private static GameEngine copyOf(GameEngine game) {
+        IGameBoard board = game.getBoard();
+        GameEngine copy = new GameEngine(new GameBoardBit(board.getNumRows(), board.getNumColumns(),
+                board.getNumToWin()), game.getNumPlayers());
+        for (int i = 0; i < game.getNumMoves(); i++) {
+            copy.applyMove(game.getMove(i));
+        }
+        return copy;
+    }
+
+    /**
+     * This class is one position in the search tree, reached by playing move
+     *
+     * @invariant [children is null until the node is expanded and never changes after that]
+     */
+    private static final class Node {
+        private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+        private final Node parent;
+        private final int move;
+        private final int player;
+        private volatile Node[] children;
+        private final AtomicInteger visits = new AtomicInteger();
+        private final AtomicInteger virtualLosses = new AtomicInteger();
+        private final AtomicLong halfPoints = new AtomicLong();
+
+        /**
+         * @param parent the node this node's move was played from
+         * @param move the column played to reach this node
+         * @param player the player who played move
+         */
+        private Node(Node parent, int move, int player) {
+            this.parent = parent;
+            this.move = move;
+            this.player = player;
+        }
+
+        /**
+         * adds a child for every legal move of game, unless another thread already has
+         * @param game the game in this node's position
+         * @param legal scratch space for the legal moves
+         * @return the children of this node
+         * @pre game.isGameOver() = false
+         * @post [children holds one node for each legal move] AND game = #game
+         */
+        private Node[] expand(GameEngine game, int[] legal) {
+            int numLegal = game.getLegalMoves(legal);
+            Node[] created = new Node[numLegal];
+            for (int i = 0; i < numLegal; i++) {
+                created[i] = new Node(this, legal[i], game.getCurrentPlayer());
+            }
+            // if another thread got here first, use its children so every thread shares the same ones
+            CHILDREN.compareAndSet(this, null, created);
+            return children;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads an opening book: a file of positions, sorted by their zobrist key, with the move a deep
+ * search picked for each. The file is memory-mapped and looked up with a binary search straight on the
+ * mapped bytes, so opening a book costs nothing no matter how big it is and there is nothing to deserialize.
+ * <p>
+ * A book file is a header followed by fixed-size entries, all big-endian:
+ * <pre>
+ *   header: int MAGIC, int VERSION, int rows, int cols, int numToWin, int players, int count
+ *   entry:  long zobristKey, short move, short depth
+ * </pre>
+ * Books for the configurations people play are looked for in the directory named by the
+ * {@code connectx.books} system property, {@code books} by default, under the name from fileName.
+ *
+ * @invariant [entries are sorted by zobristKey as signed longs and no key appears twice]
+ */
+public class OpeningBook {
+    /**
+     * the first int of every book file
+     */
+    public static final int MAGIC = 0x43584F42;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 7 * Integer.BYTES;
+    public static final int ENTRY_BYTES = Long.BYTES + 2 * Short.BYTES;
+
+    private final ByteBuffer entries;
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final int players;
+    private final int count;
+
+    private OpeningBook(ByteBuffer file) throws IOException {
+        if (file.limit() < HEADER_BYTES || file.getInt(0) != MAGIC || file.getInt(4) != VERSION) {
+            throw new IOException("Not an opening book");
+        }
+        this.rows = file.getInt(8);
+        this.cols = file.getInt(12);
+        this.numToWin = file.getInt(16);
+        this.players = file.getInt(20);
+        this.count = file.getInt(24);
+        if ((long) HEADER_BYTES + (long) count * ENTRY_BYTES > file.limit()) {
+            throw new IOException("Opening book is truncated");
+        }
+        this.entries = file.position(HEADER_BYTES).slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * maps a book file into memory
+     * @param file the book to open
+     * @return the book
+     * @throws IOException if the file can't be read or is not a book
+     * @post [the file stays mapped until the book is garbage collected]
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(mapped);
+        }
+    }
+
+    /**
+     * opens the book for a configuration from the books directory, if there is one
+     * @return the book, or null if there is no readable book for the configuration
+     * @post [the book, if any, matches rows, cols, numToWin and players]
+     */
+    public static OpeningBook forConfig(int rows, int cols, int numToWin, int players) {
+        Path file = Paths.get(System.getProperty("connectx.books", "books"), fileName(rows, cols, numToWin, players));
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+        try {
+            OpeningBook book = open(file);
+            return book.matches(rows, cols, numToWin, players) ? book : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * returns the name a book for a configuration is saved under
+     * @return a name like 6x7-4-2p.book
+     */
+    public static String fileName(int rows, int cols, int numToWin, int players) {
+        return rows + "x" + cols + "-" + numToWin + "-" + players + "p.book";
+    }
+
+    /**
+     * returns true if the book was made for this configuration
+     * @return true iff the header has these rows, cols, numToWin and players
+     * @post self = #self
+     */
+    public boolean matches(int rows, int cols, int numToWin, int players) {
+        return this.rows == rows && this.cols == cols && this.numToWin == numToWin && this.players == players;
+    }
+
+    /**
+     * returns the number of positions in the book
+     * @post size = count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * looks up the book move for the position of game
+     * @param game the game being played
+     * @return the book's column for the position, or -1 if the position is not in the book or its move is not
+     * legal
+     * @pre [the book matches game's configuration]
+     * @post game = #game
+     */
+    public int lookup(GameEngine game) {
+        int move = lookup(game.getBoard().getZobristKey());
+        return move >= 0 && game.isLegalMove(move) ? move : -1;
+    }
+
+    /**
+     * looks up the book move for a zobrist key
+     * @param key the zobrist key of the position
+     * @return the book's column for the position, or -1 if the key is not in the book
+     * @post self = #self
+     */
+    public int lookup(long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = entries.getLong(mid * ENTRY_BYTES);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return entries.getShort(mid * ENTRY_BYTES + Long.BYTES);
+            }
+        }
+        return -1;
+    }
+}
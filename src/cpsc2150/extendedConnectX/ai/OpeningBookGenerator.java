@@ -0,0 +1,145 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.BoardFactory;
+import cpsc2150.extendedConnectX.models.GameEngine;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class builds an {@link OpeningBook} by searching every position the first few moves of a
+ * configuration can reach with an {@link AlphaBetaPlayer}, and writes the moves it picks to a book file.
+ * Positions reached by different move orders have the same zobrist key and are only searched once.
+ * <p>
+ * Options are given as {@code --name value} pairs:
+ * <pre>
+ *   java cpsc2150.extendedConnectX.ai.OpeningBookGenerator --rows 6 --cols 7 --win 4 --players 2
+ *       --depth 4 --millis 1000 --out books/6x7-4-2p.book
+ * </pre>
+ * The default output is the file {@link OpeningBook#forConfig} looks for in the {@code books} directory.
+ *
+ * @version 2.0
+ */
+public class OpeningBookGenerator {
+
+    /**
+     * <p>
+     * This method is the entry point for generating a book.
+     * </p>
+     *
+     * @param args
+     *            Command-line options, see the class description.
+     * @throws IOException if the book can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = Integer.parseInt(option(args, "rows", "6"));
+        int cols = Integer.parseInt(option(args, "cols", "7"));
+        int numWin = Integer.parseInt(option(args, "win", "4"));
+        int players = Integer.parseInt(option(args, "players", "2"));
+        int depth = Integer.parseInt(option(args, "depth", "4"));
+        long millis = Long.parseLong(option(args, "millis", "1000"));
+        Path out = Paths.get(option(args, "out",
+                Paths.get("books", OpeningBook.fileName(rows, cols, numWin, players)).toString()));
+
+        long start = System.nanoTime();
+        Map<Long, Integer> book = generate(rows, cols, numWin, players, depth, millis);
+        write(out, rows, cols, numWin, players, book);
+        System.out.printf("Wrote %d positions to %s in %.1f s%n", book.size(), out,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * <p>
+     * This searches every position up to depth moves into the game.
+     * </p>
+     *
+     * @return the searched positions by zobrist key, each with (move << 16) | [the depth the search reached]
+     * @pre depth >= 0 AND millis > 0
+     * @post [every position with fewer than depth moves that the game can reach and that is not over is in the map]
+     */
+    public static Map<Long, Integer> generate(int rows, int cols, int numWin, int players, int depth, long millis) {
+        GameEngine game = new GameEngine(BoardFactory.create(BoardFactory.BIT, rows, cols, numWin), players);
+        game.trackThreats();
+        AlphaBetaPlayer searcher = new AlphaBetaPlayer(rows, cols, millis);
+        Map<Long, Integer> book = new TreeMap<>();
+        expand(game, searcher, depth, book);
+        return book;
+    }
+
+    /**
+     * <p>
+     * This searches the position of game if it is new, and then every position after it.
+     * </p>
+     *
+     * @post game = #game AND [the positions below game's position, up to depth more moves, are in book]
+     */
+    private static void expand(GameEngine game, AlphaBetaPlayer searcher, int depth, Map<Long, Integer> book) {
+        long key = game.getBoard().getZobristKey();
+        if (depth == 0 || game.isGameOver() || book.containsKey(key)) {
+            return;
+        }
+        int move = searcher.chooseMove(game);
+        book.put(key, (move << 16) | searcher.getLastDepth());
+        for (int c = 0; c < game.getBoard().getNumColumns(); c++) {
+            if (game.isLegalMove(c)) {
+                game.applyMove(c);
+                expand(game, searcher, depth - 1, book);
+                game.undoMove();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This writes a book file in the format {@link OpeningBook} reads.
+     * </p>
+     *
+     * @param book the positions by zobrist key, each with (move << 16) | depth
+     * @throws IOException if the file can't be written
+     * @post [OpeningBook.open(out) looks up the move of every position in book]
+     */
+    public static void write(Path out, int rows, int cols, int numWin, int players, Map<Long, Integer> book)
+            throws IOException {
+        // a TreeMap iterates in signed key order, which is the order the binary search expects
+        Map<Long, Integer> sorted = book instanceof TreeMap ? book : new TreeMap<>(book);
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + sorted.size() * OpeningBook.ENTRY_BYTES);
+        buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(rows).putInt(cols).putInt(numWin)
+                .putInt(players).putInt(sorted.size());
+        for (Map.Entry<Long, Integer> e : sorted.entrySet()) {
+            buffer.putLong(e.getKey()).putShort((short) (e.getValue() >>> 16)).putShort((short) (e.getValue() & 0xFFFF));
+        }
+        buffer.flip();
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This finds the value of an option.
+     * </p>
+     *
+     * @return the value after {@code --name} in args, or def if it isn't there
+     * @post args = #args
+     */
+    private static String option(String[] args, String name, String def) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--" + name)) {
+                return args[i + 1];
+            }
+        }
+        return def;
+    }
+}
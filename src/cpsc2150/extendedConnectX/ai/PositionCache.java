@@ -0,0 +1,120 @@
+package cpsc2150.extendedConnectX.ai;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class remembers solved positions in two levels: the most recently used ones in memory, and every one
+ * ever solved in an optional {@link DiskPositionStore}. A position found on disk is moved into memory, and
+ * once memory is full the least recently used position is dropped from it.
+ * <p>
+ * All methods are synchronized so one cache can be shared by every simulation thread.
+ *
+ * @invariant recent.size() <= memoryEntries
+ *
+ * @correspondence self = [recent together with the records of disk]
+ */
+public class PositionCache implements Closeable {
+    private final int memoryEntries;
+    private final Map<Long, Integer> recent;
+    private final DiskPositionStore disk;
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+
+    /**
+     * Constructor that will make an empty cache
+     * @param memoryEntries how many positions to keep in memory
+     * @param disk the store to keep every position in, or null to only use memory
+     * @pre memoryEntries > 0
+     * @post [recent is empty]
+     */
+    public PositionCache(int memoryEntries, DiskPositionStore disk) {
+        this.memoryEntries = memoryEntries;
+        this.disk = disk;
+        // access order makes the first entry the least recently used one
+        this.recent = new LinkedHashMap<Long, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > PositionCache.this.memoryEntries;
+            }
+        };
+    }
+
+    /**
+     * returns the value cached for a key
+     * @param key the key to look up
+     * @return the value, or -1 if key is in neither level
+     * @throws UncheckedIOException if the disk store can't be read
+     * @post [if key was only on disk it is now in recent too]
+     */
+    public synchronized int get(long key) {
+        Integer value = recent.get(key);
+        if (value != null) {
+            memoryHits++;
+            return value;
+        }
+        int stored = readDisk(key);
+        if (stored >= 0) {
+            diskHits++;
+            recent.put(key, stored);
+        } else {
+            misses++;
+        }
+        return stored;
+    }
+
+    /**
+     * caches a value for a key in both levels
+     * @param key the key to store
+     * @param value the value for key
+     * @pre value >= 0
+     * @throws UncheckedIOException if the disk store can't be written
+     * @post get(key) = value
+     */
+    public synchronized void put(long key, int value) {
+        recent.put(key, value);
+        if (disk != null) {
+            try {
+                disk.put(key, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * returns a summary of how often each level answered
+     * @return the hit and miss counts
+     * @post self = #self
+     */
+    public synchronized String getStats() {
+        return "memory hits " + memoryHits + ", disk hits " + diskHits + ", misses " + misses
+                + (disk == null ? "" : ", " + disk.size() + " positions on disk");
+    }
+
+    /**
+     * closes the disk store, if there is one
+     * @throws IOException if the store can't be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    private int readDisk(long key) {
+        if (disk == null) {
+            return -1;
+        }
+        try {
+            return disk.get(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
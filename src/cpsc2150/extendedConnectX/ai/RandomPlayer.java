@@ -0,0 +1,45 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import java.util.SplittableRandom;
+
+/**
+ * This class is a computer player that plays any legal column with the same chance, which makes a
+ * baseline for measuring the other players
+ *
+ * @invariant [legal has room for every column of the games this player is used in]
+ */
+public class RandomPlayer implements IComputerPlayer {
+    private SplittableRandom random;
+    private int[] legal = new int[0];
+
+    /**
+     * <p>
+     * This creates a random player.
+     * </p>
+     *
+     * @param seed the seed for the player's random numbers
+     *
+     * @post [the player picks moves from a random number generator seeded with seed]
+     */
+    public RandomPlayer(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int chooseMove(GameEngine game) {
+        if (legal.length < game.getBoard().getNumColumns()) {
+            legal = new int[game.getBoard().getNumColumns()];
+        }
+        return legal[random.nextInt(game.getLegalMoves(legal))];
+    }
+
+    /**
+     * starts the player's random numbers again from a new seed, so a game can be played the same way again
+     * @param seed the seed for the player's random numbers
+     * @post [the player picks moves as a new RandomPlayer(seed) would]
+     */
+    public void reseed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+}
@@ -0,0 +1,15 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import java.util.SplittableRandom;
+
+/**
+ * This class is the simplest rollout policy, which picks every legal move with the same chance
+ */
+public class RandomRolloutPolicy implements IRolloutPolicy {
+
+    @Override
+    public int pickMove(GameEngine game, int[] legal, int numLegal, SplittableRandom random) {
+        return legal[random.nextInt(numLegal)];
+    }
+}
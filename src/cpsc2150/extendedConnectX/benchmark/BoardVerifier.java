@@ -0,0 +1,113 @@
+package cpsc2150.extendedConnectX.benchmark;
+
+import cpsc2150.extendedConnectX.models.*;
+import java.util.SplittableRandom;
+
+/**
+ * This class checks every {@link IGameBoard} implementation in {@link BoardFactory#TYPES} against a brute
+ * force search: it plays random games on boards of random configurations and checks checkForWin after every
+ * move. It is kept apart from the JMH benchmarks in the benchmarks module so it can be run on its own with
+ * <pre>
+ *   java cpsc2150.extendedConnectX.benchmark.BoardVerifier [--games 1000]
+ * </pre>
+ *
+ * @version 2.0
+ */
+public class BoardVerifier {
+
+    /**
+     * <p>
+     * This method checks every implementation and prints how many moves were checked.
+     * </p>
+     *
+     * @param args
+     *            {@code --games n} to play n random games on every implementation
+     * @throws IllegalStateException if an implementation's checkForWin is wrong
+     */
+    public static void main(String[] args) {
+        int games = 1000;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--games")) {
+                games = Integer.parseInt(args[i + 1]);
+            }
+        }
+        for (String type : BoardFactory.TYPES) {
+            System.out.printf("verified %d moves on %s%n", verifyWins(type, games, new SplittableRandom(11)), type);
+        }
+    }
+
+    /**
+     * <p>
+     * This plays random games on boards of random configurations and checks that checkForWin agrees with a
+     * brute force search of every line on the board after every move.
+     * </p>
+     *
+     * @param type the implementation to check, one of BoardFactory.TYPES
+     * @param games the number of games to play
+     * @param random where the configurations and moves come from
+     * @return the number of moves checked
+     * @throws IllegalStateException if checkForWin and the brute force search disagree
+     * @pre games >= 0
+     */
+    public static long verifyWins(String type, int games, SplittableRandom random) {
+        long checked = 0;
+        for (int g = 0; g < games; g++) {
+            int rows = IGameBoard.MINROWS + random.nextInt(10);
+            int cols = IGameBoard.MINCOLUMNS + random.nextInt(10);
+            int numToWin = IGameBoard.MINNUMTOWIN + random.nextInt(Math.min(rows, cols) - IGameBoard.MINNUMTOWIN + 1);
+            int np = IGameBoard.MINPLAYERS + random.nextInt(4);
+            IGameBoard board = BoardFactory.create(type, rows, cols, numToWin);
+            // the game keeps going after a win so later moves are checked against boards that already hold one
+            for (int i = 0; i < rows * cols; i++) {
+                int c;
+                do {
+                    c = random.nextInt(cols);
+                } while (!board.checkIfFree(c));
+                board.placeToken(PlayerTokens.tokenAt(i % np), c);
+                boolean expected = hasLineThrough(board, board.getColumnHeight(c) - 1, c);
+                if (board.checkForWin(c) != expected) {
+                    throw new IllegalStateException(type + " checkForWin(" + c + ") should be " + expected + " on\n" + board);
+                }
+                checked++;
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * <p>
+     * This looks at every line of getNumToWin() positions on the board, in every direction, for one that
+     * holds the token at (row, col) and nothing else.
+     * </p>
+     *
+     * @return true iff some full line of the token at (row, col) covers (row, col)
+     */
+    private static boolean hasLineThrough(IGameBoard board, int row, int col) {
+        int n = board.getNumToWin();
+        char p = board.whatsAtPos(row, col);
+        for (int r = 0; r < board.getNumRows(); r++) {
+            for (int c = 0; c < board.getNumColumns(); c++) {
+                for (int dRow = -1; dRow <= 1; dRow++) {
+                    for (int dCol = -1; dCol <= 1; dCol++) {
+                        if (dRow == 0 && dCol == 0) {
+                            continue;
+                        }
+                        boolean full = true;
+                        boolean covers = false;
+                        for (int k = 0; k < n && full; k++) {
+                            int i = r + k * dRow;
+                            int j = c + k * dCol;
+                            full = i >= 0 && i < board.getNumRows() && j >= 0 && j < board.getNumColumns()
+                                    && board.whatsAtPos(i, j) == p;
+                            covers |= i == row && j == col;
+                        }
+                        if (full && covers) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
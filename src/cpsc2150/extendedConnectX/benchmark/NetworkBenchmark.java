@@ -0,0 +1,240 @@
+package cpsc2150.extendedConnectX.benchmark;
+
+import cpsc2150.extendedConnectX.models.MoveResult;
+import cpsc2150.extendedConnectX.network.GameServer;
+import cpsc2150.extendedConnectX.network.LatencyHistogram;
+import cpsc2150.extendedConnectX.network.Protocol;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * This class loads a {@link GameServer} with many clients at once, all run by one non-blocking selector, that
+ * play random legal moves and join another game as soon as theirs ends or is abandoned. It reports how many
+ * games were being played at once, games and moves per second, and percentiles of the time from sending a
+ * move to hearing back where it landed and, for a server in this process, of the time clients waited for a
+ * game. Without {@code --host} it starts a server in this process on a free port, so it runs entirely over
+ * localhost:
+ * <pre>
+ *   java cpsc2150.extendedConnectX.benchmark.NetworkBenchmark --connections 2000 --seconds 10
+ *       [--rows 6 --cols 7 --win 4 --players 2] [--host localhost --port 4815]
+ * </pre>
+ * Each connection takes a file descriptor on both ends when the server is in this process, so the open file
+ * limit has to be over twice the number of connections.
+ *
+ * @version 2.0
+ */
+public class NetworkBenchmark {
+
+    private static final int READ_BYTES = 256;
+    private static final int MAX_SAMPLES = 1 << 20;
+
+    private static int rows;
+    private static int cols;
+    private static int numToWin;
+    private static int players;
+    private static long gamesFinished;
+    private static long gamesAbandoned;
+    private static long movesMade;
+    private static long[] latencies = new long[MAX_SAMPLES];
+    private static int samples;
+
+    /**
+     * <p>
+     * This method connects the clients, lets them play for the time given, and prints the results.
+     * </p>
+     *
+     * @param args
+     *            Command-line options, see the class description.
+     * @throws Exception if the server can't be started or reached
+     */
+    public static void main(String[] args) throws Exception {
+        int connections = Integer.parseInt(option(args, "connections", "2000"));
+        long seconds = Long.parseLong(option(args, "seconds", "10"));
+        rows = Integer.parseInt(option(args, "rows", "6"));
+        cols = Integer.parseInt(option(args, "cols", "7"));
+        numToWin = Integer.parseInt(option(args, "win", "4"));
+        players = Integer.parseInt(option(args, "players", "2"));
+        String host = option(args, "host", null);
+        int port = Integer.parseInt(option(args, "port", Integer.toString(Protocol.DEFAULT_PORT)));
+
+        GameServer server = null;
+        if (host == null) {
+            server = new GameServer(0);
+            new Thread(server, "connectx-server").start();
+            host = "localhost";
+            port = server.getPort();
+        }
+
+        Selector selector = Selector.open();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < connections; i++) {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+            Bot bot = new Bot(channel, random.split());
+            channel.register(selector, SelectionKey.OP_READ, bot);
+            bot.join();
+        }
+        System.out.printf("Connected %d clients to %s:%d%n", connections, host, port);
+
+        // only count games from once every client has connected
+        gamesFinished = 0;
+        gamesAbandoned = 0;
+        movesMade = 0;
+        samples = 0;
+        int peakGames = 0;
+        long start = System.nanoTime();
+        long end = start + seconds * 1000000000L;
+        while (System.nanoTime() < end) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                ((Bot) key.attachment()).read();
+            }
+            if (server != null) {
+                peakGames = Math.max(peakGames, server.getActiveGames());
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games (%.0f games/s), %d moves (%.0f moves/s)%n", gamesFinished,
+                gamesFinished / elapsed, movesMade, movesMade / elapsed);
+        if (gamesAbandoned > 0) {
+            System.out.printf("%d games abandoned by the server%n", gamesAbandoned);
+        }
+        if (server != null) {
+            System.out.printf("Up to %d games at once on the server%n", peakGames);
+            LatencyHistogram waits = server.getWaitTimes();
+            System.out.printf("Wait for a game p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    waits.getPercentile(0.5) / 1e6, waits.getPercentile(0.9) / 1e6, waits.getPercentile(0.99) / 1e6,
+                    waits.getMax() / 1e6);
+        }
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        if (samples > 0) {
+            System.out.printf("Move round trip p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    sorted[samples / 2] / 1e6, sorted[samples * 9 / 10] / 1e6, sorted[samples * 99 / 100] / 1e6,
+                    sorted[samples - 1] / 1e6);
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * returns the value of option --name, or def if it wasn't given
+     */
+    private static String option(String[] args, String name, String def) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--" + name)) {
+                return args[i + 1];
+            }
+        }
+        return def;
+    }
+
+    /**
+     * One client, which keeps the column heights of its game so it only plays legal moves
+     */
+    private static final class Bot {
+        final SocketChannel channel;
+        final SplittableRandom random;
+        final ByteBuffer in = ByteBuffer.allocate(READ_BYTES);
+        final ByteBuffer out = ByteBuffer.allocate(Protocol.MAX_SIZE);
+        final int[] heights = new int[cols];
+        int seat;
+        long sentAt;
+
+        Bot(SocketChannel channel, SplittableRandom random) {
+            this.channel = channel;
+            this.random = random;
+        }
+
+        void join() throws IOException {
+            Arrays.fill(heights, 0);
+            out.put(Protocol.JOIN).put((byte) rows).put((byte) cols).put((byte) numToWin).put((byte) players);
+            send();
+        }
+
+        void move() throws IOException {
+            int col = random.nextInt(cols);
+            while (heights[col] == rows) {
+                col = (col + 1) % cols;
+            }
+            out.put(Protocol.MOVE).put((byte) col);
+            sentAt = System.nanoTime();
+            send();
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("The server closed a connection");
+            }
+            in.flip();
+            while (in.hasRemaining() && in.remaining() >= Protocol.sizeOf(in.get(in.position()))) {
+                byte type = in.get();
+                if (type == Protocol.JOINED) {
+                    in.getInt();
+                    seat = in.get() & 0xFF;
+                } else if (type == Protocol.START) {
+                    if (seat == 0) {
+                        move();
+                    }
+                } else if (type == Protocol.MOVED) {
+                    int mover = in.get() & 0xFF;
+                    in.get();
+                    int col = in.get() & 0xFF;
+                    int outcome = in.get() & 0xFF;
+                    heights[col]++;
+                    if (mover == seat) {
+                        movesMade++;
+                        if (samples < MAX_SAMPLES) {
+                            latencies[samples++] = System.nanoTime() - sentAt;
+                        }
+                    }
+                    if (outcome != MoveResult.CONTINUE) {
+                        // every seat counts the game, so only seat 0 adds it up
+                        if (seat == 0) {
+                            gamesFinished++;
+                        }
+                        join();
+                    } else if ((mover + 1) % players == seat) {
+                        move();
+                    }
+                } else if (type == Protocol.ABANDONED) {
+                    // a seat left, such as a computer the server gave up on, so the game is over without a result
+                    in.get();
+                    if (seat == 0) {
+                        gamesAbandoned++;
+                    }
+                    join();
+                } else {
+                    throw new IOException("The server sent message " + type);
+                }
+            }
+            in.compact();
+        }
+
+        private void send() throws IOException {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.clear();
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package cpsc2150.extendedConnectX.controllers;
 
+import cpsc2150.extendedConnectX.ai.*;
 import cpsc2150.extendedConnectX.models.*;
+import cpsc2150.extendedConnectX.persistence.GameRecordWriter;
+import cpsc2150.extendedConnectX.persistence.GameSnapshot;
 import cpsc2150.extendedConnectX.views.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.swing.SwingUtilities;
 
 /**
  * The controller class will handle communication between our View and our Model ({@link IGameBoard})
@@ -11,10 +21,14 @@ import cpsc2150.extendedConnectX.views.*;
  * You will need to include your {@link IGameBoard} interface
  * and both of the {@link IGameBoard} implementations from Project 4
  * If your code was correct you will not need to make any changes to your {@link IGameBoard} implementation class
+ * <p>
+ * Clicks arrive on the event dispatch thread, but the moves they start, win and tie checks included, are worked
+ * out on a background thread so a computer player thinking for a second never freezes the screen. Everything
+ * that changes the screen is sent back to the event dispatch thread with {@code SwingUtilities.invokeLater}.
  *
  * @version 2.0
  */
-public class ConnectXController {
+public class ConnectXController implements IConnectXController {
 
     /**
      * <p>
@@ -23,6 +37,20 @@ public class ConnectXController {
      */
     private IGameBoard curGame;
 
+    /**
+     * <p>
+     * Runs the turns of the current game on {@code curGame}
+     * </p>
+     */
+    private GameEngine engine;
+
+    /**
+     * <p>
+     * The computer player for each seat, or null if a person plays that seat
+     * </p>
+     */
+    private IComputerPlayer[] computers;
+
     /**
      * <p>
      * The screen that provides our view
@@ -37,9 +65,6 @@ public class ConnectXController {
      */
     public static final int MAX_PLAYERS = 10;
 
-    // create an array of 10 possible tokens that people can use
-    private char[] possibleTokens = {'X', 'O', 'S', 'D', 'A', 'W', 'K', 'C', 'M', 'T'};
-    
     /**
      * <p>
      * The number of players for this game. Note that our player tokens are hard coded.
@@ -50,8 +75,78 @@ public class ConnectXController {
     // use this in order to reset the game if there is a win
     private boolean resetGame;
 
-    // will be used to determine who's turn it is
-    private int currPlayer;
+    /**
+     * <p>
+     * True if {@link BoardFactory} picked the board, so it may move the game to a denser board as it fills.
+     * A board the player picked is kept.
+     * </p>
+     */
+    private boolean autoBoard;
+
+    /**
+     * <p>
+     * How many milliseconds each move took, and when the last one was made
+     * </p>
+     */
+    private int[] moveMillis;
+    private long lastMoveNanos;
+
+    /**
+     * <p>
+     * Where finished games are recorded, opened when the first game ends. Games are only recorded if the
+     * {@code connectx.records} system property names a file to record them in. If it can't be opened
+     * games are just not recorded. The writer is only used on {@code RECORDER}.
+     * </p>
+     */
+    private static final String RECORDS_FILE = System.getProperty("connectx.records");
+    private static GameRecordWriter records;
+    private static boolean recordsFailed;
+
+    /**
+     * <p>
+     * The thread finished games are recorded on. Turns on {@code MOVES} are stopped by interrupting them,
+     * and an interrupt closes the record file part way through a write, so records are never written there.
+     * </p>
+     */
+    private static final ExecutorService RECORDER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "connectx-records");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * <p>
+     * Where the game is checkpointed after every move so it can be resumed, named by the
+     * {@code connectx.snapshot} system property. Null, and games aren't checkpointed, if it isn't set.
+     * </p>
+     */
+    public static final Path SNAPSHOT_FILE = System.getProperty("connectx.snapshot") == null ? null
+            : Paths.get(System.getProperty("connectx.snapshot"));
+
+    /**
+     * <p>
+     * The thread moves are worked out on. It is one thread so turns, and the games they belong to, are
+     * worked out one at a time in the order they were started.
+     * </p>
+     */
+    private static final ExecutorService MOVES = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "connectx-moves");
+        // a game being worked out shouldn't keep the program running once the window is closed
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * <p>
+     * The turn being worked out on {@code MOVES}, or null while waiting for a person. Only used on the event
+     * dispatch thread.
+     * </p>
+     */
+    private Future<?> turn;
+
+    // set once this game has been given up on for a new one, so it only happens once
+    private boolean finished;
+
     /**
      * <p>
      * This creates a controller for running the Extended ConnectX game
@@ -61,13 +156,140 @@ public class ConnectXController {
      *      The board implementation
      * @param view
      *      The screen that is shown
+     * @param np
+     *      The number of players
      * 
      * @post [ the controller will respond to actions on the view using the model. ]
      */
     public ConnectXController(IGameBoard model, ConnectXView view, int np) {
-        this.curGame = model;
+        this(model, view, np, new IComputerPlayer[np]);
+    }
+
+    /**
+     * <p>
+     * This creates a controller for running the Extended ConnectX game with computer players
+     * </p>
+     *
+     * @param model
+     *      The board implementation
+     * @param view
+     *      The screen that is shown
+     * @param np
+     *      The number of players
+     * @param comps
+     *      The computer player for each seat, or null where a person plays
+     *
+     * @pre comps.length = np AND comps[0] = null
+     * @post [ the controller will respond to actions on the view using the model, and computer players
+     * will take their turns right after the person before them ]
+     */
+    public ConnectXController(IGameBoard model, ConnectXView view, int np, IComputerPlayer[] comps) {
+        this(model, view, np, comps, false);
+    }
+
+    /**
+     * <p>
+     * This creates a controller for running the Extended ConnectX game with computer players
+     * </p>
+     *
+     * @param model
+     *      The board implementation
+     * @param view
+     *      The screen that is shown
+     * @param np
+     *      The number of players
+     * @param comps
+     *      The computer player for each seat, or null where a person plays
+     * @param auto
+     *      True if {@link BoardFactory} picked the board rather than the player
+     *
+     * @pre comps.length = np AND comps[0] = null
+     * @post [ the controller will respond to actions on the view using the model, and computer players
+     * will take their turns right after the person before them ] AND autoBoard = auto
+     */
+    public ConnectXController(IGameBoard model, ConnectXView view, int np, IComputerPlayer[] comps,
+                              boolean auto) {
+        this(new GameEngine(model, np), view, comps);
+        this.autoBoard = auto;
+    }
+
+    /**
+     * <p>
+     * This creates a controller that continues a game that has already started
+     * </p>
+     *
+     * @param game
+     *      The game to continue
+     * @param view
+     *      The screen that is shown
+     * @param comps
+     *      The computer player for each seat, or null where a person plays
+     *
+     * @pre comps.length = game.getNumPlayers()
+     * @post [ the controller will respond to actions on the view by continuing game ]
+     */
+    private ConnectXController(GameEngine game, ConnectXView view, IComputerPlayer[] comps) {
+        this.curGame = game.getBoard();
         this.screen = view;
-        numPlayers = np;
+        numPlayers = game.getNumPlayers();
+        this.engine = game;
+        this.computers = comps;
+        for (IComputerPlayer computer : comps) {
+            if (computer != null) {
+                // the computers search this game every turn, so one tracker is kept up to date for all of it
+                game.trackThreats();
+                break;
+            }
+        }
+        this.moveMillis = new int[curGame.getNumRows() * curGame.getNumColumns()];
+        this.lastMoveNanos = System.nanoTime();
+    }
+
+    /**
+     * <p>
+     * This opens a game saved in a snapshot file on a new screen, on whichever board implementation
+     * {@link BoardFactory} picks for it. Computer seats are played by {@code Alpha-Beta} players.
+     * </p>
+     *
+     * @param file
+     *      The snapshot file to resume
+     * @return the controller of the resumed game
+     * @throws IOException if the file can't be read or doesn't hold a valid snapshot
+     *
+     * @pre [ called on the event dispatch thread ]
+     * @post [ the game is on the screen as it was saved, and if it was a computer's turn the computers
+     * start taking their turns ]
+     */
+    public static ConnectXController resume(Path file) throws IOException {
+        GameSnapshot snapshot = GameSnapshot.load(file);
+        int rows = snapshot.getRows();
+        int cols = snapshot.getColumns();
+        int players = snapshot.getPlayers();
+        String type = BoardFactory.choose(rows, cols, players, snapshot.getNumToWin());
+        IGameBoard model = SetupController.BOARDS.acquire(type, rows, cols, snapshot.getNumToWin());
+        GameEngine game = snapshot.restore(model);
+        IComputerPlayer[] comps = SetupController.makeComputers(rows, cols, snapshot.getNumToWin(), players,
+                snapshot.getComputerSeats(), SetupController.COMPUTER_ALPHA_BETA);
+
+        ConnectXView view = new ConnectXView(rows, cols);
+        ConnectXController controller = new ConnectXController(game, view, comps);
+        controller.autoBoard = true;
+        view.registerObserver(controller);
+        for (int c = 0; c < cols; c++) {
+            for (int r = 0; r < model.getColumnHeight(c); r++) {
+                view.setMarker(r, c, model.whatsAtPos(r, c));
+            }
+        }
+        controller.resetGame = snapshot.isResetGame() || game.isGameOver();
+        if (game.getWinner() != GameEngine.NO_WINNER) {
+            view.setMessage("Player " + PlayerTokens.tokenAt(game.getWinner())
+                    + ", wins.  Click a button to play again.");
+        } else if (model.checkTie()) {
+            view.setMessage("Game has ended in a tie, click a button to play again.");
+        } else if (!controller.resetGame) {
+            controller.startTurn(controller::playComputers);
+        }
+        return controller;
     }
 
     /**
@@ -79,54 +301,235 @@ public class ConnectXController {
      *      The column of the activated button
      * 
      * @post [ will allow the player to place a token in the column if it is not full, otherwise it will display an error
-     * and allow them to pick again. Will check for a win as well. If a player wins it will allow for them to play another
-     * game hitting any button ]
+     * and allow them to pick again. Will check for a win as well. Any computer players after them then take their
+     * turns. If a player wins it will allow for them to play another game hitting any button. Clicks while
+     * the last one is still being worked out are ignored ]
      */
+    @Override
     public void processButtonClick(int col) {
-        // if there is a win we want to start a new game when we click on
-        // the column
-        if (resetGame) {
-            newGame();
+        if (turn != null) {
             return;
         }
+        startTurn(() -> takeTurn(col));
+    }
 
-        // now check for a tie
-        if (curGame.checkTie()) {
-            newGame();
+    /**
+     * <p>
+     * This processes a click on the new game button, giving up on the current game even if a computer
+     * player is still thinking.
+     * </p>
+     *
+     * @post [ the current turn is cancelled and a new game gets started ]
+     */
+    @Override
+    public void processNewGame() {
+        newGame();
+    }
+
+    /**
+     * <p>
+     * This starts working out a turn on the {@code MOVES} thread
+     * </p>
+     *
+     * @param work
+     *      What to do on the {@code MOVES} thread
+     *
+     * @pre [ called on the event dispatch thread ] AND turn = null
+     * @post [ work runs on the MOVES thread, and turn is null again once it is done ]
+     */
+    private void startTurn(Runnable work) {
+        screen.setWaiting(true);
+        turn = MOVES.submit(() -> {
+            try {
+                work.run();
+            } finally {
+                SwingUtilities.invokeLater(() -> {
+                    turn = null;
+                    screen.setWaiting(false);
+                });
+            }
+        });
+    }
+
+    /**
+     * <p>
+     * This plays the move a person picked and then the computers' turns, on the {@code MOVES} thread
+     * </p>
+     *
+     * @param col
+     *      The column the person picked
+     */
+    private void takeTurn(int col) {
+        // if there is a win or a tie we want to start a new game when we click on
+        // the column
+        if (resetGame) {
+            SwingUtilities.invokeLater(this::newGame);
             return;
         }
 
-        // tell the current player it is their turn
-        screen.setMessage("Player " + possibleTokens[(currPlayer + 1) % numPlayers] + ", it is your turn to play");
         // if the column is full, tell them to pick a different one
         if (!curGame.checkIfFree(col)) {
-            screen.setMessage("That column is full, pick a different one");
-        } else if (curGame.checkIfFree(col) && !curGame.checkForWin(col)) {
-            // find where to place in the column
-            int openSpot = -1;
-            for (int i = 0; i < curGame.getNumRows(); i++) {
-                BoardPosition pos = new BoardPosition(i, col);
-                if (curGame.whatsAtPos(pos) == ' ') {
-                    openSpot = i;
-                    break; // once we find an open spot we can exit the loop
-                }
+            SwingUtilities.invokeLater(() -> screen.setMessage("That column is full, pick a different one"));
+            return;
+        }
+
+        if (playMove(col)) {
+            return;
+        }
+        playComputers();
+    }
+
+    /**
+     * <p>
+     * This lets the computer players take their turns until it is a person's turn again
+     * </p>
+     *
+     * @pre [ called on the MOVES thread and the game is not over ]
+     * @post [ the computers have moved and either the game is over or it is a person's turn and the message
+     * says so ]
+     */
+    private void playComputers() {
+        while (computers[engine.getCurrentPlayer()] != null) {
+            int col = computers[engine.getCurrentPlayer()].chooseMove(engine);
+            // the game was given up on while the computer was thinking
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (playMove(col)) {
+                return;
             }
-            curGame.placeToken(possibleTokens[currPlayer % numPlayers], col);
-            screen.setMarker(openSpot, col, possibleTokens[currPlayer % numPlayers]);
-            currPlayer++;
         }
 
-        if (curGame.checkTie()) {
-            screen.setMessage("Game has ended in a tie, click a button to play again.");
+        // tell the next player it is their turn
+        char token = engine.getCurrentToken();
+        SwingUtilities.invokeLater(() -> screen.setMessage("Player " + token + ", it is your turn to play"));
+    }
+
+    /**
+     * <p>
+     * This places the current player's token in a column and shows it on the screen
+     * </p>
+     *
+     * @param col
+     *      The column to play in
+     * @return true if the move ended the game
+     *
+     * @pre [ col is not full and the game is not over ]
+     * @post [ the token is on the board and the screen, and if the game ended the message says how and
+     * resetGame = true ]
+     */
+    private boolean playMove(int col) {
+        char token = engine.getCurrentToken();
+        long now = System.nanoTime();
+        moveMillis[engine.getNumMoves()] = (int) ((now - lastMoveNanos) / 1000000);
+        lastMoveNanos = now;
+        // where the token landed and whether it ended the game are worked out once, from the token alone
+        MoveResult result = engine.makeMove(col);
+        SwingUtilities.invokeLater(() -> screen.setMarker(result.getRow(), col, token));
+
+        // once a sparse board is full enough it is smaller and faster as a dense one, unless the player
+        // asked for it
+        String denser = autoBoard ? BoardFactory.migrationTarget(curGame, numPlayers) : null;
+        if (denser != null) {
+            curGame = BoardFactory.copyOf(curGame, denser);
+            engine.replaceBoard(curGame);
+        }
+
+        if (result.isWin()) {
+            SwingUtilities.invokeLater(() -> screen.setMessage("Player " + token
+                    + ", wins.  Click a button to play again."));
             resetGame = true;
-            return;
-        } else if (curGame.checkForWin(col)) {
-            currPlayer -= 1;
-            screen.setMessage("Player " + possibleTokens[currPlayer % numPlayers] + ", wins.  Click a button to play again.");
+            recordGame();
+        } else if (result.isTie()) {
+            SwingUtilities.invokeLater(() -> screen.setMessage(
+                    "Game has ended in a tie, click a button to play again."));
             resetGame = true;
+            recordGame();
+        }
+        saveSnapshot();
+        return resetGame;
+    }
+
+    /**
+     * <p>
+     * This checkpoints the game to the snapshot file
+     * </p>
+     *
+     * @post [ the snapshot file holds the game as it is now, unless checkpointing is off or the file can't
+     * be written ]
+     */
+    private void saveSnapshot() {
+        if (SNAPSHOT_FILE == null) {
             return;
         }
+        int seats = 0;
+        for (int i = 0; i < numPlayers; i++) {
+            if (computers[i] != null) {
+                seats |= 1 << i;
+            }
+        }
+        try {
+            GameSnapshot.save(SNAPSHOT_FILE, engine, resetGame, seats);
+        } catch (IOException e) {
+            // the game can still be played, it just can't be resumed from this move
+        }
+    }
 
+    /**
+     * <p>
+     * This hands the finished game to {@code RECORDER} to be appended to the game record file
+     * </p>
+     *
+     * @pre [ the game is over ]
+     * @post [ the game's moves and times will be in the record file, unless recording is off or the file
+     * can't be written ]
+     */
+    private void recordGame() {
+        if (RECORDS_FILE == null) {
+            return;
+        }
+        // neither changes once the game is over, so the recorder can read them after this game is left
+        GameEngine game = engine;
+        int[] millis = moveMillis;
+        RECORDER.execute(() -> writeRecord(game, millis));
+    }
+
+    /**
+     * <p>
+     * This appends a finished game to the game record file
+     * </p>
+     *
+     * @param game
+     *      The finished game
+     * @param millis
+     *      The milliseconds each of its moves took
+     *
+     * @pre [ called on RECORDER and game is over ]
+     * @post [ the game's moves and times are in the record file, unless the file can't be written ]
+     */
+    private static void writeRecord(GameEngine game, int[] millis) {
+        if (records == null && !recordsFailed) {
+            try {
+                records = new GameRecordWriter(Paths.get(RECORDS_FILE));
+            } catch (IOException e) {
+                recordsFailed = true;
+            }
+        }
+        if (records != null) {
+            try {
+                records.write(game, millis);
+                records.flush();
+            } catch (IOException e) {
+                // losing the record of a game is no reason to stop playing; the file is opened again for
+                // the next game
+                try {
+                    records.close();
+                } catch (IOException closeFailed) {
+                    // the channel is closed even if the last flush failed
+                }
+                records = null;
+            }
+        }
     }
 
     /**
@@ -134,11 +537,29 @@ public class ConnectXController {
      * This method will start a new game by returning to the setup screen and controller
      * </p>
      * 
-     * @post [ a new game gets started ]
+     * @pre [ called on the event dispatch thread ]
+     * @post [ any turn being worked out is cancelled and a new game gets started ]
      */
     private void newGame() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        // stop a computer that is still thinking
+        if (turn != null) {
+            turn.cancel(true);
+        }
+
         //close the current screen
         screen.dispose();
+
+        // the board can be reset and reused if the next game has the same configuration, once the
+        // cancelled turn has let go of it
+        MOVES.execute(() -> {
+            IGameBoard board = curGame;
+            SwingUtilities.invokeLater(() -> SetupController.BOARDS.release(board));
+        });
         
         //start back at the set up menu
         SetupView screen = new SetupView();
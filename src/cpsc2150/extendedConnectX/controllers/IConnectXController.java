@@ -0,0 +1,22 @@
+package cpsc2150.extendedConnectX.controllers;
+
+/**
+ * Interface for the controllers a {@link cpsc2150.extendedConnectX.views.ConnectXView} can send clicks to, whether
+ * the game is played in this program or on a server
+ */
+public interface IConnectXController {
+
+    /**
+     * This method is called when a column of the board is clicked
+     * @param col the column that was clicked
+     * @pre [col is a column of the board]
+     * @post [the current player's move is started in col if it is allowed, otherwise the view says why not]
+     */
+    public void processButtonClick(int col);
+
+    /**
+     * This method is called when the new game button is clicked
+     * @post [the current game is given up and a new one is started]
+     */
+    public void processNewGame();
+}
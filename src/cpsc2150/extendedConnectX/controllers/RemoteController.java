@@ -0,0 +1,254 @@
+package cpsc2150.extendedConnectX.controllers;
+
+import cpsc2150.extendedConnectX.models.MoveResult;
+import cpsc2150.extendedConnectX.models.PlayerTokens;
+import cpsc2150.extendedConnectX.network.GameClient;
+import cpsc2150.extendedConnectX.network.GameServer;
+import cpsc2150.extendedConnectX.network.IGameListener;
+import cpsc2150.extendedConnectX.network.Protocol;
+import cpsc2150.extendedConnectX.views.ConnectXView;
+import java.io.IOException;
+import javax.swing.SwingUtilities;
+
+/**
+ * This controller plays on a {@link GameServer} instead of on a board of its own. A click is sent to the
+ * server as a move, and the {@link ConnectXView} only changes when the server says what a move did, so
+ * every player's screen shows the same game no matter where they are.
+ * <p>
+ * The server's messages arrive on the client's reader thread and are handed to the event dispatch thread
+ * with {@code SwingUtilities.invokeLater}, in the order they came.
+ *
+ * @version 2.0
+ */
+public class RemoteController implements IConnectXController, IGameListener {
+
+    /**
+     * <p>
+     * The configuration of the games this player joins
+     * </p>
+     */
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final int numPlayers;
+
+    /**
+     * <p>
+     * The connection to the server
+     * </p>
+     */
+    private final GameClient client;
+
+    /**
+     * <p>
+     * The screen that provides our view
+     * </p>
+     */
+    private ConnectXView screen;
+
+    /**
+     * <p>
+     * The number of the game on the server, -1 until the server says which game this player is in. Messages
+     * that come while it is -1 are still about the last game, sent before the server saw this player leave,
+     * so they are dropped.
+     * </p>
+     */
+    private int gameId;
+
+    /**
+     * <p>
+     * This player's seat, whose seat's turn it is, and how far the game has got. Only used on the event
+     * dispatch thread.
+     * </p>
+     */
+    private int seat;
+    private int currentSeat;
+    private boolean started;
+    private boolean over;
+    private boolean connected;
+
+    /**
+     * <p>
+     * This connects to a server, opens a screen and asks for a seat in a game
+     * </p>
+     *
+     * @param host
+     *      The name or address of the server
+     * @param port
+     *      The port the server listens on
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      Number of players for this game
+     * @throws IOException if the server can't be reached
+     *
+     * @pre [ called on the event dispatch thread ]
+     * @post [ a screen is open and waiting for the game to start ]
+     */
+    public RemoteController(String host, int port, int rows, int cols, int numWin, int players)
+            throws IOException {
+        this.rows = rows;
+        this.cols = cols;
+        this.numToWin = numWin;
+        this.numPlayers = players;
+        this.client = new GameClient(host, port, this);
+        this.connected = true;
+        joinGame();
+    }
+
+    @Override
+    public void processButtonClick(int col) {
+        if (!connected) {
+            return;
+        }
+        if (over) {
+            joinGame();
+        } else if (!started) {
+            screen.setMessage("Waiting for more players to join");
+        } else if (currentSeat != seat) {
+            screen.setMessage("It is player " + PlayerTokens.tokenAt(currentSeat) + "'s turn");
+        } else {
+            // the server checks the move, and the marker is only drawn once it says where the token went
+            try {
+                client.move(col);
+            } catch (IOException e) {
+                screen.setMessage("Lost the connection to the server");
+            }
+        }
+    }
+
+    @Override
+    public void processNewGame() {
+        if (!connected) {
+            return;
+        }
+        try {
+            client.leave();
+        } catch (IOException e) {
+            screen.setMessage("Lost the connection to the server");
+            return;
+        }
+        joinGame();
+    }
+
+    @Override
+    public void joined(int game, int s) {
+        SwingUtilities.invokeLater(() -> {
+            gameId = game;
+            seat = s;
+            screen.setMessage("You are player " + PlayerTokens.tokenAt(s) + " in game " + game);
+        });
+    }
+
+    @Override
+    public void started() {
+        SwingUtilities.invokeLater(() -> {
+            if (gameId < 0) {
+                return;
+            }
+            started = true;
+            currentSeat = 0;
+            showTurn();
+        });
+    }
+
+    @Override
+    public void moved(int s, int row, int col, int outcome) {
+        SwingUtilities.invokeLater(() -> {
+            if (gameId < 0) {
+                return;
+            }
+            char token = PlayerTokens.tokenAt(s);
+            screen.setMarker(row, col, token);
+            if (outcome == MoveResult.WIN) {
+                over = true;
+                screen.setMessage("Player " + token + ", wins.  Click a button to play again.");
+            } else if (outcome == MoveResult.TIE) {
+                over = true;
+                screen.setMessage("Game has ended in a tie, click a button to play again.");
+            } else {
+                currentSeat = (s + 1) % numPlayers;
+                showTurn();
+            }
+        });
+    }
+
+    @Override
+    public void refused(int code) {
+        SwingUtilities.invokeLater(() -> {
+            if (gameId < 0 && code != Protocol.BAD_CONFIG && code != Protocol.ALREADY_PLAYING) {
+                // a refused move from the last game
+                return;
+            }
+            if (code == Protocol.ILLEGAL_MOVE) {
+                screen.setMessage("That column is full, pick a different one");
+            } else if (code == Protocol.BAD_CONFIG) {
+                over = true;
+                screen.setMessage("The server can't host a game of that size");
+            } else {
+                screen.setMessage("The server refused that move, wait for your turn");
+            }
+        });
+    }
+
+    @Override
+    public void abandoned(int s) {
+        SwingUtilities.invokeLater(() -> {
+            if (gameId < 0) {
+                return;
+            }
+            over = true;
+            screen.setMessage("Player " + PlayerTokens.tokenAt(s) + " left the game, click a button to play again.");
+        });
+    }
+
+    @Override
+    public void disconnected() {
+        SwingUtilities.invokeLater(() -> {
+            connected = false;
+            screen.setMessage("Lost the connection to the server");
+        });
+    }
+
+    /**
+     * <p>
+     * This opens a fresh screen and asks the server for a seat in the next game
+     * </p>
+     *
+     * @post [ the screen is empty and the server has been asked for a seat ]
+     */
+    private void joinGame() {
+        if (screen != null) {
+            screen.dispose();
+        }
+        screen = new ConnectXView(rows, cols);
+        screen.registerObserver(this);
+        screen.setMessage("Waiting for a game");
+        gameId = -1;
+        seat = -1;
+        started = false;
+        over = false;
+        try {
+            client.join(rows, cols, numToWin, numPlayers);
+        } catch (IOException e) {
+            screen.setMessage("Lost the connection to the server");
+        }
+    }
+
+    /**
+     * <p>
+     * This tells the player whose turn it is
+     * </p>
+     */
+    private void showTurn() {
+        if (currentSeat == seat) {
+            screen.setMessage("Player " + PlayerTokens.tokenAt(seat) + ", it is your turn to play");
+        } else {
+            screen.setMessage("Waiting for player " + PlayerTokens.tokenAt(currentSeat));
+        }
+    }
+}
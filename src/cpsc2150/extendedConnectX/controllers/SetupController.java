@@ -1,7 +1,11 @@
 package cpsc2150.extendedConnectX.controllers;
 
+import cpsc2150.extendedConnectX.ai.*;
 import cpsc2150.extendedConnectX.models.*;
 import cpsc2150.extendedConnectX.views.*;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.SwingUtilities;
 
 /**
  * This class is the controller for our setup screen. The {@code processButtonClick} method is called by
@@ -29,15 +33,60 @@ public class SetupController {
 
     /**
      * <p>
-     * Constants for minimum size, maximum size, minimum number of
-     * tokens required to win and the board cutoff for automatically
-     * choosing between Gameboard and GameboardMem.
+     * Constants for minimum size, maximum size and minimum number of
+     * tokens required to win.
      * </p>
      */
     private final int MAX_SIZE = 20;
     private final int MIN_SIZE = 3;
     private final int MIN_TO_WIN = 3;
-    private final int BOARD_CUTOFF = 100;
+
+    /**
+     * <p>
+     * The board types the player can pick from. {@code BOARD_AUTO} lets {@link BoardFactory}
+     * pick the implementation from measured costs.
+     * </p>
+     */
+    public static final String BOARD_AUTO = "Automatic";
+    public static final String BOARD_FAST = "Fast";
+    public static final String BOARD_MEM = "Memory Efficient";
+    public static final String BOARD_BIT = "Bitboard";
+
+    /**
+     * Gameboards from finished games, reset and reused when the next game has the same configuration.
+     * Only used on the event dispatch thread.
+     */
+    static final BoardPool BOARDS = new BoardPool(2);
+
+    /**
+     * <p>
+     * The kinds of computer player that can fill seats, and how long each one gets to pick a move.
+     * </p>
+     */
+    public static final String COMPUTER_ALPHA_BETA = "Alpha-Beta";
+    public static final String COMPUTER_MONTE_CARLO = "Monte Carlo";
+    private static final long COMPUTER_TIME_MILLIS = 1000;
+
+    /**
+     * <p>
+     * Computer players solve the game exactly once this few positions are empty, remembering up to
+     * ENDGAME_CACHE_SIZE solved positions between games and giving up after ENDGAME_MAX_NODES positions.
+     * </p>
+     */
+    private static final int ENDGAME_EMPTY = 12;
+    private static final long ENDGAME_MAX_NODES = 2000000;
+    private static final int ENDGAME_CACHE_SIZE = 100000;
+    private static final PositionCache ENDGAMES = new PositionCache(ENDGAME_CACHE_SIZE, null);
+
+    /**
+     * <p>
+     * The computer players of the last configuration played, one per seat, kept so the next game with that
+     * configuration reuses their search tables instead of allocating new ones.
+     * </p>
+     */
+    private static final IComputerPlayer[] REUSED = new IComputerPlayer[IGameBoard.MAXPLAYERS];
+    private static int reusedConfig = -1;
+    private static String reusedType;
 
     /**
      * <p>
@@ -64,8 +113,15 @@ public class SetupController {
      *      Number of players for this game
      * @param numWin
      *      Number of tokens in a row required to win
+     * @param boardType
+     *      Which {@link IGameBoard} implementation to use, one of the {@code BOARD_} constants
+     * @param numComputers
+     *      How many of the last seats are played by the computer
+     * @param computerType
+     *      Which kind of computer player to use, one of the {@code COMPUTER_} constants
      */
-    public void processButtonClick(int rows, int cols, int players, int numWin) {
+    public void processButtonClick(int rows, int cols, int players, int numWin, String boardType,
+                                   int numComputers, String computerType) {
         String errorMsg = "";
         if (rows < MIN_SIZE || rows > MAX_SIZE) {
             errorMsg += "Rows must be between " + MIN_SIZE + " and " + MAX_SIZE;
@@ -86,23 +142,111 @@ public class SetupController {
             errorMsg += "Number to win must be at least " + MIN_TO_WIN;
         }
 
+        if (numComputers >= players) {
+            errorMsg += "At least one player must be a person";
+        }
+
         if (!errorMsg.equals("")) {
             view.displayError(errorMsg);
         } else {
             view.closeScreen();
-            IGameBoard model;
-            
-            // if the board is too big we'll want the memory efficient version
-            if (rows * cols > BOARD_CUTOFF) {
-                model = new GameBoardMem(rows, cols, numWin);
+
+            if (boardType.equals(BOARD_FAST)) {
+                startGame(BoardFactory.FAST, false, rows, cols, players, numWin, numComputers, computerType);
+            } else if (boardType.equals(BOARD_MEM)) {
+                startGame(BoardFactory.MEM, false, rows, cols, players, numWin, numComputers, computerType);
+            } else if (boardType.equals(BOARD_BIT)) {
+                startGame(BoardFactory.BIT, false, rows, cols, players, numWin, numComputers, computerType);
             } else {
-                model = new GameBoard(rows, cols, numWin);
+                // the cost model may have to calibrate first, which takes a couple of seconds, so the board is
+                // picked off the event dispatch thread and the game opens once it has been
+                CompletableFuture.supplyAsync(() -> BoardFactory.choose(rows, cols, players, numWin))
+                        .thenAccept(type -> SwingUtilities.invokeLater(() -> startGame(type, true, rows, cols,
+                                players, numWin, numComputers, computerType)));
             }
+        }
+    }
 
-            ConnectXView tview = new ConnectXView(rows, cols);
-            ConnectXController tcontroller = new ConnectXController(model, tview, players);
+    /**
+     * <p>
+     * This opens the screen and controller of a new game.
+     * </p>
+     *
+     * @param type
+     *      Which {@link BoardFactory} type the board is
+     * @param auto
+     *      True if the board type was picked by {@link BoardFactory} rather than the player
+     *
+     * @pre [ called on the event dispatch thread ]
+     * @post [ the game is on a new screen ]
+     */
+    private void startGame(String type, boolean auto, int rows, int cols, int players, int numWin,
+                           int numComputers, String computerType) {
+        IGameBoard model = BOARDS.acquire(type, rows, cols, numWin);
+
+        // the computer players take the last seats
+        int seats = ((1 << numComputers) - 1) << (players - numComputers);
+        IComputerPlayer[] computers = makeComputers(rows, cols, numWin, players, seats, computerType);
+
+        ConnectXView tview = new ConnectXView(rows, cols);
+        ConnectXController tcontroller = new ConnectXController(model, tview, players, computers, auto);
 
-            tview.registerObserver(tcontroller);
+        tview.registerObserver(tcontroller);
+    }
+
+    /**
+     * <p>
+     * This makes the computer players for a game, reusing those of the last game if it had the same
+     * configuration and kind of computer player. Every computer move is picked on the same thread, so games
+     * can share players.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      Number of players for this game
+     * @param seats
+     *      The seats played by the computer, bit i for seat i
+     * @param computerType
+     *      Which kind of computer player to use, one of the {@code COMPUTER_} constants
+     * @return the computer player for each seat, or null where a person plays
+     */
+    static synchronized IComputerPlayer[] makeComputers(int rows, int cols, int numWin, int players, int seats,
+                                                        String computerType) {
+        int config = rows << 24 | cols << 16 | numWin << 8 | players;
+        if (config != reusedConfig || !computerType.equals(reusedType)) {
+            Arrays.fill(REUSED, null);
+            reusedConfig = config;
+            reusedType = computerType;
+        }
+        IComputerPlayer[] computers = new IComputerPlayer[players];
+        // play the first moves from an opening book if one was generated for this configuration,
+        // and solve the last ones exactly
+        OpeningBook book = OpeningBook.forConfig(rows, cols, numWin, players);
+        for (int i = 0; i < players; i++) {
+            if ((seats & (1 << i)) == 0) {
+                continue;
+            }
+            if (REUSED[i] != null) {
+                computers[i] = REUSED[i];
+                continue;
+            }
+            if (computerType.equals(COMPUTER_MONTE_CARLO)) {
+                computers[i] = new MCTSPlayer(COMPUTER_TIME_MILLIS);
+            } else {
+                computers[i] = new AlphaBetaPlayer(rows, cols, COMPUTER_TIME_MILLIS);
+            }
+            if (book != null) {
+                computers[i] = new BookPlayer(book, computers[i]);
+            }
+            computers[i] = new EndgamePlayer(computers[i], new EndgameSolver(ENDGAMES, ENDGAME_MAX_NODES),
+                    ENDGAME_EMPTY);
+            REUSED[i] = computers[i];
         }
+        return computers;
     }
 }
\ No newline at end of file
@@ -8,26 +8,25 @@ public abstract class AbsGameBoard implements IGameBoard {
      */
     @Override
     public String toString() {
-        String board = "";
+        StringBuilder board = new StringBuilder();
         // print the column numbers on top of the board
         for (int i = 0; i < getNumColumns(); i++) {
             if (i < 10) {
-                board += "| " + i;
+                board.append("| ").append(i);
             } else {
-                board += "|" + i;
+                board.append("|").append(i);
             }
         }
-        board += "|";
-        board += "\n";
+        board.append("|");
+        board.append("\n");
         // now, traverse the entire board and print out its contents
         for (int i = getNumRows() - 1; i >= 0; i--) {
-            board += "|";
+            board.append("|");
             for (int j = 0; j < getNumColumns(); j++) {
-                BoardPosition curPos = new BoardPosition(i, j);
-                board += whatsAtPos(curPos) + " |";
+                board.append(whatsAtPos(i, j)).append(" |");
             }
-            board += "\n";
+            board.append("\n");
         }
-        return board;
+        return board.toString();
     }
 }
@@ -0,0 +1,115 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Andy Bodell
+/**
+ * This class hands out blocks of off-heap memory for {@link GameBoardOffHeap}. Blocks are cut from large direct
+ * buffers so thousands of boards don't each need their own direct allocation, and blocks that are given back
+ * are kept by size and handed out again for the next board of the same dimensions. The memory of a chunk is
+ * only returned to the operating system once nothing refers to any block cut from it.
+ *
+ * The arena is safe to use from several threads.
+ *
+ * @invariant [every block in free is zeroed and was cut from a chunk] AND 0 <= used <= chunk.capacity()
+ *
+ * @correspondence self = [the blocks handed out and the blocks in free]
+ */
+public final class BoardArena {
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+    private static final BoardArena DEFAULT = new BoardArena(DEFAULT_CHUNK_BYTES);
+
+    private final int chunkBytes;
+    private final Map<Integer, ArrayDeque<ByteBuffer>> free;
+    private ByteBuffer chunk;
+    private int used;
+    private long reservedBytes;
+
+    /**
+     * Constructor that will make an empty arena
+     * @param chunkBytes how many bytes of direct memory to reserve at a time
+     * @pre chunkBytes > 0
+     * @post [no memory is reserved yet] AND [free is empty]
+     */
+    public BoardArena(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+        this.free = new HashMap<>();
+        this.chunk = null;
+        this.used = 0;
+        this.reservedBytes = 0;
+    }
+
+    /**
+     * returns the arena shared by every board that is not given its own
+     * @return the default arena
+     * @post [every call returns the same arena]
+     */
+    public static BoardArena getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * hands out a zeroed block of bytes, reusing a freed block of the same size if there is one
+     * @param bytes the size of the block
+     * @return a block with position 0, limit and capacity bytes and every byte 0
+     * @pre bytes > 0
+     * @post [the block is not handed out again until it is freed]
+     */
+    public synchronized ByteBuffer allocate(int bytes) {
+        ArrayDeque<ByteBuffer> sameSize = free.get(bytes);
+        if (sameSize != null && !sameSize.isEmpty()) {
+            return sameSize.pop();
+        }
+        if (chunk == null || chunk.capacity() - used < bytes) {
+            // whatever is left of the old chunk is too small, so it is left for the blocks already cut from it
+            chunk = ByteBuffer.allocateDirect(Math.max(chunkBytes, bytes));
+            used = 0;
+            reservedBytes += chunk.capacity();
+        }
+        ByteBuffer block = chunk.duplicate();
+        block.position(used).limit(used + bytes);
+        used += bytes;
+        return block.slice();
+    }
+
+    /**
+     * gives a block back to the arena so it can be handed out again
+     * @param block a block from allocate that is no longer used
+     * @param dirtyBytes how many bytes at the start of block may not be 0
+     * @pre [block came from allocate on this arena and was not freed since] AND 0 <= dirtyBytes <= block.capacity()
+     * @post [block is zeroed and will be handed out again by allocate(block.capacity())]
+     */
+    public void free(ByteBuffer block, int dirtyBytes) {
+        for (int i = 0; i < dirtyBytes; i++) {
+            block.put(i, (byte) 0);
+        }
+        synchronized (this) {
+            free.computeIfAbsent(block.capacity(), k -> new ArrayDeque<>()).push(block);
+        }
+    }
+
+    /**
+     * returns how many bytes of direct memory the arena has reserved
+     * @return the total size of every chunk reserved so far
+     * @post self = #self
+     */
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * returns how many freed blocks are waiting to be handed out again
+     * @return the number of blocks in free
+     * @post self = #self
+     */
+    public synchronized int getFreeBlocks() {
+        int count = 0;
+        for (ArrayDeque<ByteBuffer> blocks : free.values()) {
+            count += blocks.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,261 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+// Andy Bodell
+/**
+ * This class predicts how long a move takes and how much memory a gameboard uses for each implementation
+ * in {@link BoardFactory#TYPES}, so {@link BoardFactory} can pick one from measurements instead of a fixed
+ * cutoff.
+ *
+ * The model is calibrated by timing placeToken, whatsAtPos and checkForWin on a half full board of each type
+ * at each of the REF_SIZES, a board the size of the classic game and the biggest one allowed. How much a board
+ * costs changes with its size as much as with its type, since a big board no longer fits in the CPU's caches,
+ * so a prediction for other sizes is interpolated between the two by the log of the number of cells.
+ * Calibrating takes up to a couple of seconds, so the results are saved to a profile file in the user's home
+ * directory and reused as long as the Java version and CPU architecture match.
+ *
+ * @invariant [costs has placeNanos, probeNanos and winNanos at each of REF_SIZES for every type in
+ *            BoardFactory.TYPES]
+ */
+public final class BoardCostModel {
+    private static final Path PROFILE = Paths.get(System.getProperty("user.home"), ".connectx-board-profile");
+    // {rows, cols} of the boards the costs are measured on, smallest first
+    private static final int[][] REF_SIZES = {{6, 7}, {IGameBoard.MAXROWS, IGameBoard.MAXCOLUMNS}};
+    private static final String[] REF_NAMES = {"small", "large"};
+    private static final int REF_WIN = 4;
+    private static final int REF_PLAYERS = 2;
+    // a move places a token, checks it for a win, and the view or a computer player reads some positions
+    private static final int PROBES_PER_MOVE = 8;
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 100000;
+    private static final int PLACE = 0, PROBE = 1, WIN = 2;
+
+    private static BoardCostModel defaultModel;
+
+    // costs.get(type)[size] = {placeNanos, probeNanos, winNanos} on REF_SIZES[size]
+    private final Map<String, double[][]> costs;
+
+    private BoardCostModel(Map<String, double[][]> costs) {
+        this.costs = costs;
+    }
+
+    /**
+     * returns the model for this machine, loading it from the profile file or calibrating and saving it the
+     * first time it is asked for
+     * @return the cost model
+     * @post [every call returns the same model]
+     */
+    public static synchronized BoardCostModel getDefault() {
+        if (defaultModel == null) {
+            defaultModel = load(PROFILE);
+            if (defaultModel == null) {
+                defaultModel = calibrate();
+                try {
+                    defaultModel.save(PROFILE);
+                } catch (IOException e) {
+                    // without a profile the next run just calibrates again
+                }
+            }
+        }
+        return defaultModel;
+    }
+
+    /**
+     * times every implementation on the reference boards
+     * @return a model built from the timings
+     * @post [the model's costs are measured on this machine]
+     */
+    public static BoardCostModel calibrate() {
+        Map<String, double[][]> costs = new HashMap<>();
+        for (String type : BoardFactory.TYPES) {
+            double[][] sizes = new double[REF_SIZES.length][];
+            for (int s = 0; s < REF_SIZES.length; s++) {
+                sizes[s] = measure(type, REF_SIZES[s][0], REF_SIZES[s][1]);
+            }
+            costs.put(type, sizes);
+        }
+        return new BoardCostModel(costs);
+    }
+
+    /**
+     * reads a model from a profile file
+     * @param file the profile to read
+     * @return the model, or null if the file is missing, unreadable, or from a different Java or CPU
+     * @post [file is unchanged]
+     */
+    public static BoardCostModel load(Path file) {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!System.getProperty("java.version").equals(props.getProperty("java.version"))
+                || !System.getProperty("os.arch").equals(props.getProperty("os.arch"))) {
+            return null;
+        }
+        Map<String, double[][]> costs = new HashMap<>();
+        try {
+            for (String type : BoardFactory.TYPES) {
+                double[][] sizes = new double[REF_SIZES.length][];
+                for (int s = 0; s < REF_SIZES.length; s++) {
+                    String key = type + "." + REF_NAMES[s];
+                    sizes[s] = new double[] {Double.parseDouble(props.getProperty(key + ".place")),
+                            Double.parseDouble(props.getProperty(key + ".probe")),
+                            Double.parseDouble(props.getProperty(key + ".win"))};
+                }
+                costs.put(type, sizes);
+            }
+        } catch (NullPointerException | NumberFormatException e) {
+            return null;
+        }
+        return new BoardCostModel(costs);
+    }
+
+    /**
+     * writes the model to a profile file
+     * @param file the profile to write
+     * @throws IOException if the file can't be written
+     * @post [load(file) returns a model with the same costs]
+     */
+    public void save(Path file) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("java.version", System.getProperty("java.version"));
+        props.setProperty("os.arch", System.getProperty("os.arch"));
+        for (Map.Entry<String, double[][]> e : costs.entrySet()) {
+            for (int s = 0; s < REF_SIZES.length; s++) {
+                String key = e.getKey() + "." + REF_NAMES[s];
+                props.setProperty(key + ".place", Double.toString(e.getValue()[s][PLACE]));
+                props.setProperty(key + ".probe", Double.toString(e.getValue()[s][PROBE]));
+                props.setProperty(key + ".win", Double.toString(e.getValue()[s][WIN]));
+            }
+        }
+        try (Writer out = Files.newBufferedWriter(file)) {
+            props.store(out, "ConnectX board cost profile");
+        }
+    }
+
+    /**
+     * predicts how many nanoseconds one move takes on a gameboard of type
+     * @param type one of BoardFactory.TYPES
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param players the number of players
+     * @param numToWin the number of consecutive tokens in a row to win
+     * @return the predicted nanoseconds per move
+     * @pre [rows and cols are valid dimensions] AND MINPLAYERS <= players <= MAXPLAYERS AND
+     *      MINNUMTOWIN <= numToWin <= MAXNUMTOWIN
+     * @post self = #self
+     */
+    public double predictMoveNanos(String type, int rows, int cols, int players, int numToWin) {
+        double[][] sizes = costs.get(type);
+        // how far the board is from the small reference to the large one, by the log of its cells
+        int last = REF_SIZES.length - 1;
+        double small = Math.log((double) REF_SIZES[0][0] * REF_SIZES[0][1]);
+        double large = Math.log((double) REF_SIZES[last][0] * REF_SIZES[last][1]);
+        double t = Math.max(0, Math.min(1, (Math.log((double) rows * cols) - small) / (large - small)));
+        double[] c = new double[3];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = sizes[0][i] + t * (sizes[last][i] - sizes[0][i]);
+        }
+        double win = c[WIN] * numToWin / REF_WIN;
+        double probe = c[PROBE];
+        if (type.equals(BoardFactory.BIT)) {
+            // the bitboard looks through the planes one player at a time to find a token
+            probe = probe * (players + 1) / (REF_PLAYERS + 1);
+        }
+        return c[PLACE] + win + PROBES_PER_MOVE * probe;
+    }
+
+    /**
+     * estimates how many bytes a gameboard of type uses
+     * @param type one of BoardFactory.TYPES
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param filled the number of tokens on the gameboard
+     * @return the estimated size of the gameboard in bytes, not counting shared zobrist tables
+     * @pre 0 <= filled <= rows * cols
+     * @post self = #self
+     */
+    public static long predictBytes(String type, int rows, int cols, int filled) {
+        switch (type) {
+            case BoardFactory.FAST:
+                // an array header per row plus two bytes per cell
+                return 16L * rows + 2L * rows * cols + 4L * cols;
+            case BoardFactory.MEM:
+                // an int key and a char token per slot, at most half of the slots full
+                return 12L * Math.max(16, Integer.highestOneBit(Math.max(1, filled) * 2) * 2) + 4L * cols;
+            case BoardFactory.PACKED:
+                // half a byte per cell in one array
+                return 16L + (rows * cols + 1) / 2 + 4L * cols;
+            case BoardFactory.OFF_HEAP:
+                // only the handful of fields are on the heap, the block is a byte per column and per cell
+                return (long) cols + (long) rows * cols;
+            default:
+                return (long) IGameBoard.MAXPLAYERS * ((cols * (rows + 1L) + 63) / 64 * 8 + 16) + 4L * cols;
+        }
+    }
+
+    /**
+     * times placeToken, whatsAtPos and checkForWin on a half full refRows x refCols board of type
+     * @return {nanoseconds per place and remove, per whatsAtPos, per checkForWin}
+     */
+    private static double[] measure(String type, int refRows, int refCols) {
+        IGameBoard board = BoardFactory.create(type, refRows, refCols, REF_WIN);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < refRows * refCols / 2; i++) {
+            int c;
+            do {
+                c = random.nextInt(refCols);
+            } while (!board.checkIfFree(c));
+            board.placeToken(PlayerTokens.tokenAt(i % REF_PLAYERS), c);
+        }
+        int[] cols = new int[ITERATIONS];
+        int[] rows = new int[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            do {
+                cols[i] = random.nextInt(refCols);
+            } while (!board.checkIfFree(cols[i]));
+            rows[i] = random.nextInt(refRows);
+        }
+
+        double[] result = new double[3];
+        long sink = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            // the first pass warms up the JIT and is thrown away
+            int n = pass == 0 ? WARMUP : ITERATIONS;
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                board.placeToken(PlayerTokens.tokenAt(i % REF_PLAYERS), cols[i]);
+                board.removeToken(cols[i]);
+            }
+            long placed = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                sink += board.whatsAtPos(rows[i], cols[i]);
+            }
+            long probed = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                sink += board.checkForWin(cols[i]) ? 1 : 0;
+            }
+            long checked = System.nanoTime();
+            result[PLACE] = (double) (placed - start) / n;
+            result[PROBE] = (double) (probed - placed) / n;
+            result[WIN] = (double) (checked - probed) / n;
+        }
+        // keep the probe results alive so the loops can't be optimized away
+        if (sink == Long.MIN_VALUE) {
+            result[PROBE]++;
+        }
+        return result;
+    }
+}
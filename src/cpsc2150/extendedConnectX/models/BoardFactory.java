@@ -0,0 +1,168 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.List;
+
+// Andy Bodell
+/**
+ * This class creates {@link IGameBoard} implementations by name, so that tools which try every
+ * implementation can list them in one place. It can also pick the implementation for a configuration
+ * using a {@link BoardCostModel}, and move a live game from the sparse GameBoardMem to a dense gameboard
+ * once the game is full enough that the sparse table no longer saves any memory
+ *
+ * @invariant TYPES = [FAST, MEM, BIT, OFF_HEAP, PACKED]
+ */
+public final class BoardFactory {
+    /**
+     * the names of the gameboard implementations: GameBoard, GameBoardMem, GameBoardBit, GameBoardOffHeap
+     * and GameBoardPacked
+     */
+    public static final String FAST = "fast";
+    public static final String MEM = "mem";
+    public static final String BIT = "bit";
+    public static final String OFF_HEAP = "offheap";
+    public static final String PACKED = "packed";
+    public static final List<String> TYPES = List.of(FAST, MEM, BIT, OFF_HEAP, PACKED);
+    // predicted move times closer than this fraction are too close to call, so memory decides
+    private static final double TIME_TOLERANCE = 0.1;
+
+    private BoardFactory() {
+    }
+
+    /**
+     * creates an empty gameboard of the named type
+     * @param type the name of the implementation, one of TYPES
+     * @param rows the number of rows in the gameboard
+     * @param cols the number of columns in the gameboard
+     * @param numToWin the number of consecutive tokens in a row to win the game
+     * @return a new gameboard
+     * @pre [rows, cols and numToWin are a valid configuration]
+     * @post [the gameboard is empty and has the given dimensions]
+     * @throws IllegalArgumentException if type is not one of TYPES
+     */
+    public static IGameBoard create(String type, int rows, int cols, int numToWin) {
+        switch (type) {
+            case FAST:
+                return new GameBoard(rows, cols, numToWin);
+            case MEM:
+                return new GameBoardMem(rows, cols, numToWin);
+            case BIT:
+                return new GameBoardBit(rows, cols, numToWin);
+            case OFF_HEAP:
+                return new GameBoardOffHeap(rows, cols, numToWin);
+            case PACKED:
+                return new GameBoardPacked(rows, cols, numToWin);
+            default:
+                throw new IllegalArgumentException("Unknown board type: " + type);
+        }
+    }
+
+    /**
+     * returns the name of board's implementation
+     * @param board the gameboard
+     * @return the name in TYPES that create uses for board's class
+     * @post self = #self
+     * @throws IllegalArgumentException if board is not one of the implementations in TYPES
+     */
+    public static String typeOf(IGameBoard board) {
+        if (board instanceof GameBoard) {
+            return FAST;
+        } else if (board instanceof GameBoardMem) {
+            return MEM;
+        } else if (board instanceof GameBoardBit) {
+            return BIT;
+        } else if (board instanceof GameBoardOffHeap) {
+            return OFF_HEAP;
+        } else if (board instanceof GameBoardPacked) {
+            return PACKED;
+        }
+        throw new IllegalArgumentException("Unknown board class: " + board.getClass().getName());
+    }
+
+    /**
+     * picks the implementation the default cost model predicts will make moves fastest
+     * @param rows the number of rows in the gameboard
+     * @param cols the number of columns in the gameboard
+     * @param players the number of players
+     * @param numToWin the number of consecutive tokens in a row to win the game
+     * @return one of TYPES
+     * @pre [rows, cols, players and numToWin are a valid configuration]
+     * @post [returns the type with the lowest BoardCostModel.getDefault().predictMoveNanos]
+     */
+    public static String choose(int rows, int cols, int players, int numToWin) {
+        return choose(BoardCostModel.getDefault(), rows, cols, players, numToWin);
+    }
+
+    /**
+     * picks the implementation model predicts will make moves fastest. Types whose predicted times are
+     * within TIME_TOLERANCE of each other are treated as equally fast and the one that is predicted to use
+     * less memory on a half full gameboard wins
+     * @param model the cost model to use
+     * @param rows the number of rows in the gameboard
+     * @param cols the number of columns in the gameboard
+     * @param players the number of players
+     * @param numToWin the number of consecutive tokens in a row to win the game
+     * @return one of TYPES
+     * @pre [rows, cols, players and numToWin are a valid configuration]
+     * @post [returns the type with the lowest model.predictMoveNanos, up to TIME_TOLERANCE]
+     */
+    public static String choose(BoardCostModel model, int rows, int cols, int players, int numToWin) {
+        int halfFull = rows * cols / 2;
+        String best = FAST;
+        double bestNanos = model.predictMoveNanos(best, rows, cols, players, numToWin);
+        for (String type : TYPES) {
+            double nanos = model.predictMoveNanos(type, rows, cols, players, numToWin);
+            boolean tied = Math.abs(nanos - bestNanos) <= TIME_TOLERANCE * Math.min(nanos, bestNanos);
+            if (tied ? BoardCostModel.predictBytes(type, rows, cols, halfFull)
+                    < BoardCostModel.predictBytes(best, rows, cols, halfFull) : nanos < bestNanos) {
+                best = type;
+                bestNanos = nanos;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * returns the dense implementation a live game on board should move to, if any. A sparse gameboard
+     * should move once it is predicted to use more memory than a dense one, since from then on it is only
+     * slower
+     * @param board the gameboard of the live game
+     * @param players the number of players
+     * @return the fastest dense type on the heap if board should move to it, or null if it should stay
+     * @post self = #self
+     */
+    public static String migrationTarget(IGameBoard board, int players) {
+        if (!(board instanceof GameBoardMem)) {
+            return null;
+        }
+        int rows = board.getNumRows();
+        int cols = board.getNumColumns();
+        long sparseBytes = BoardCostModel.predictBytes(MEM, rows, cols, board.getNumFilled());
+        BoardCostModel model = BoardCostModel.getDefault();
+        String dense = FAST;
+        for (String type : List.of(BIT, PACKED)) {
+            if (model.predictMoveNanos(type, rows, cols, players, board.getNumToWin())
+                    < model.predictMoveNanos(dense, rows, cols, players, board.getNumToWin())) {
+                dense = type;
+            }
+        }
+        return sparseBytes > BoardCostModel.predictBytes(dense, rows, cols, board.getNumFilled()) ? dense : null;
+    }
+
+    /**
+     * copies the tokens of board onto a new gameboard of type
+     * @param board the gameboard to copy
+     * @param type one of TYPES
+     * @return a gameboard of type with the same dimensions and tokens as board
+     * @post [copyOf has the same tokens, column heights and zobrist key as board] AND board = #board
+     */
+    public static IGameBoard copyOf(IGameBoard board, String type) {
+        IGameBoard copy = create(type, board.getNumRows(), board.getNumColumns(), board.getNumToWin());
+        // placing bottom up in every column rebuilds the same stacks
+        for (int c = 0; c < board.getNumColumns(); c++) {
+            for (int r = 0; r < board.getColumnHeight(c); r++) {
+                copy.placeToken(board.whatsAtPos(r, c), c);
+            }
+        }
+        return copy;
+    }
+}
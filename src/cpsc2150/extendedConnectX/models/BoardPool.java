@@ -0,0 +1,123 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Andy Bodell
+/**
+ * This class keeps gameboards that are done with their games so a later game of the same configuration can
+ * reset and reuse one instead of allocating a new one. Gameboards are kept by implementation and by
+ * (rows, cols, numToWin), and at most maxPerConfig of each are kept.
+ *
+ * A pool is meant to be used by one thread, such as the event dispatch thread or one simulation worker, so
+ * it does no locking.
+ *
+ * @invariant [every gameboard in configs is empty and not used by a game] AND
+ *            [every config holds at most maxPerConfig gameboards]
+ *
+ * @correspondence self = [the gameboards in configs, grouped by type, rows, cols and numToWin]
+ */
+public class BoardPool {
+    private final int maxPerConfig;
+    private final List<Config> configs;
+
+    /**
+     * The gameboards kept for one configuration
+     */
+    private static final class Config {
+        private final String type;
+        private final int rows;
+        private final int cols;
+        private final int numToWin;
+        private final ArrayDeque<IGameBoard> boards = new ArrayDeque<>();
+
+        private Config(String type, int rows, int cols, int numToWin) {
+            this.type = type;
+            this.rows = rows;
+            this.cols = cols;
+            this.numToWin = numToWin;
+        }
+    }
+
+    /**
+     * Constructor that will make an empty pool
+     * @param maxPerConfig the most gameboards to keep for each configuration
+     * @pre maxPerConfig >= 0
+     * @post [the pool is empty]
+     */
+    public BoardPool(int maxPerConfig) {
+        this.maxPerConfig = maxPerConfig;
+        this.configs = new ArrayList<>();
+    }
+
+    /**
+     * returns an empty gameboard, reusing one from the pool if there is one
+     * @param type the implementation, one of BoardFactory.TYPES
+     * @param rows the number of rows in the gameboard
+     * @param cols the number of columns in the gameboard
+     * @param numToWin the number of consecutive tokens in a row to win the game
+     * @return an empty gameboard of type with the given dimensions
+     * @pre [rows, cols and numToWin are a valid configuration]
+     * @post [the gameboard is no longer in the pool]
+     * @throws IllegalArgumentException if type is not one of BoardFactory.TYPES
+     */
+    public IGameBoard acquire(String type, int rows, int cols, int numToWin) {
+        Config config = find(type, rows, cols, numToWin);
+        if (config != null && !config.boards.isEmpty()) {
+            return config.boards.pop();
+        }
+        return BoardFactory.create(type, rows, cols, numToWin);
+    }
+
+    /**
+     * resets a gameboard whose game is over and keeps it for a later game if there is room
+     * @param board the gameboard to give back
+     * @pre [board will not be used again by whoever gives it back]
+     * @post [board is empty] AND [board is in the pool if its configuration had fewer than maxPerConfig] AND
+     *       [if board is off-heap and not kept, its block is back in its arena]
+     */
+    public void release(IGameBoard board) {
+        String type = BoardFactory.typeOf(board);
+        Config config = find(type, board.getNumRows(), board.getNumColumns(), board.getNumToWin());
+        if (config == null) {
+            config = new Config(type, board.getNumRows(), board.getNumColumns(), board.getNumToWin());
+            configs.add(config);
+        }
+        if (config.boards.size() < maxPerConfig) {
+            board.reset();
+            config.boards.push(board);
+        } else if (board instanceof GameBoardOffHeap) {
+            // an off-heap gameboard's block is only reused if it goes back to its arena
+            ((GameBoardOffHeap) board).release();
+        }
+    }
+
+    /**
+     * returns how many gameboards are waiting in the pool
+     * @return the number of pooled gameboards
+     * @post self = #self
+     */
+    public int getPooled() {
+        int count = 0;
+        for (Config config : configs) {
+            count += config.boards.size();
+        }
+        return count;
+    }
+
+    /**
+     * returns the gameboards kept for a configuration, if any have been
+     * @post self = #self
+     */
+    private Config find(String type, int rows, int cols, int numToWin) {
+        // there are only ever a few configurations, so a scan is cheaper than building a key
+        for (Config config : configs) {
+            if (config.rows == rows && config.cols == cols && config.numToWin == numToWin
+                    && config.type.equals(type)) {
+                return config;
+            }
+        }
+        return null;
+    }
+}
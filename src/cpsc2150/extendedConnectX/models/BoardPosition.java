@@ -14,6 +14,17 @@ public class BoardPosition {
     private final int ROW_POS;
     private final int COL_POS;
 
+    // one shared instance for every position a gameboard can have, indexed by row * MAXCOLUMNS + col
+    private static final BoardPosition[] CACHE = new BoardPosition[IGameBoard.MAXROWS * IGameBoard.MAXCOLUMNS];
+
+    static {
+        for (int i = 0; i < IGameBoard.MAXROWS; i++) {
+            for (int j = 0; j < IGameBoard.MAXCOLUMNS; j++) {
+                CACHE[i * IGameBoard.MAXCOLUMNS + j] = new BoardPosition(i, j);
+            }
+        }
+    }
+
     /**
      * Constructor that will create the board position with specified row and column
      *
@@ -30,6 +41,25 @@ public class BoardPosition {
         this.COL_POS = col;
     }
 
+    /**
+     * returns the shared board position with the specified row and column, so that no new object
+     * has to be created each time a position is needed
+     *
+     * @param row holds the row number
+     * @param col holds the column number
+     *
+     * @return the board position for (row, col)
+     *
+     * @pre 0 <= row < MAXROWS AND 0 <= col < MAXCOLUMNS
+     *
+     * @post of.getRow() = row AND of.getColumn() = col AND [every call with the same row and column
+     * returns the same object]
+     *
+     */
+    public static BoardPosition of(int row, int col) {
+        return CACHE[row * IGameBoard.MAXCOLUMNS + col];
+    }
+
     /**
      * returns the row position
      *
@@ -105,4 +135,16 @@ public class BoardPosition {
         }
         return false;
     }
+
+    /**
+     * Overrides the default hashCode method so that BoardPositions which are equal have the same hash code
+     *
+     * @return a hash code built from the row and column
+     *
+     * @post [if two BoardPositions are equal they return the same hash code]
+     */
+    @Override
+    public int hashCode() {
+        return ROW_POS * IGameBoard.MAXCOLUMNS + COL_POS;
+    }
 }
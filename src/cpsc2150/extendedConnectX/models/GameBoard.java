@@ -15,6 +15,8 @@ public class GameBoard extends AbsGameBoard implements IGameBoard {
      * @invariant Must place a marker within the specified dimensions
      * @invariant Markers cannot be placed at a non-empty position
      * @invariant Board has no gaps between tokens
+     * @invariant 0 <= colHeights[c] <= height AND filled = [sum of colHeights]
+     * @invariant zobristKey = [the XOR of the zobrist keys of every token in board]
      * @correspondence self = board, [number of rows] = height, [number of columns] = width,
      * [number of consecutive tokens in a row to win] = winningNum
      *
@@ -24,6 +26,10 @@ public class GameBoard extends AbsGameBoard implements IGameBoard {
     private static final char BLANK_SPACE = ' ';
     private int winningNum;
     private char[][] board;
+    private int[] colHeights;
+    private int filled;
+    private ZobristTable zobrist;
+    private long zobristKey;
 
     /**
      * Constructor that will create the gameboard for gameplay
@@ -46,6 +52,10 @@ public class GameBoard extends AbsGameBoard implements IGameBoard {
                 board[i][j] = BLANK_SPACE;
             }
         }
+        this.colHeights = new int[width];
+        this.filled = 0;
+        this.zobrist = ZobristTable.forBoard(rows, cols, MAXPLAYERS);
+        this.zobristKey = 0;
     }
 
     public int getNumRows() {
@@ -61,20 +71,47 @@ public class GameBoard extends AbsGameBoard implements IGameBoard {
     }
 
     public void placeToken(char p, int c) {
-        // need to place the token in the lowest available row
-        // bottom row is actually getNumRows - 1
-        for (int i = 0; i < getNumRows(); i++) {
-            if (board[i][c] == ' ') {
-                board[i][c] = p;
-                return;
-            }
-        }
+        // the lowest available row is the height of the column
+        zobristKey ^= zobrist.keyOf(PlayerTokens.indexOf(p), colHeights[c], c);
+        board[colHeights[c]][c] = p;
+        colHeights[c]++;
+        filled++;
+    }
+
+    public void removeToken(int c) {
+        colHeights[c]--;
+        zobristKey ^= zobrist.keyOf(PlayerTokens.indexOf(board[colHeights[c]][c]), colHeights[c], c);
+        board[colHeights[c]][c] = BLANK_SPACE;
+        filled--;
     }
 
-    public char whatsAtPos(BoardPosition pos) {
-        int row = pos.getRow();
-        int col = pos.getColumn();
+    public char whatsAtPos(int row, int col) {
         return board[row][col];
     }
 
+    public int getColumnHeight(int c) {
+        return colHeights[c];
+    }
+
+    public int getNumFilled() {
+        return filled;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public void reset() {
+        // only the positions below each column's height have been written since the last reset
+        for (int c = 0; c < width; c++) {
+            for (int r = 0; r < colHeights[c]; r++) {
+                board[r][c] = BLANK_SPACE;
+            }
+            colHeights[c] = 0;
+        }
+        filled = 0;
+        zobristKey = 0;
+    }
+
 }
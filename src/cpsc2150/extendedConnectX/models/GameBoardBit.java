@@ -0,0 +1,184 @@
+package cpsc2150.extendedConnectX.models;
+// Andy Bodell
+/**
+ * This class is designed to create the gameboard using one bit-plane per player, place tokens,
+ * and check for wins by counting the set bits of the player who just moved outwards from their token
+ *
+ * Each plane is a packed long[] in column-major order where cell (row, col) is bit col * stride + row.
+ * Every column has one extra sentinel row on top that is never set, so a line of tokens running off
+ * the top or bottom of a column can never join up with the next column.
+ *
+ * @invariant MINROWS <= height <= MAXROWS
+ * @invariant MINCOLUMNS <= width <= MAXCOLUMNS
+ * @invariant MINNUMTOWIN <= winningNum <= MAXNUMTOWIN
+ * @invariant stride = height + 1 AND [the sentinel bit of every column is 0 in every plane]
+ * @invariant [a cell is set in at most one plane]
+ * @invariant 0 <= colHeights[c] <= height AND [column c is set in some plane exactly for rows below colHeights[c]]
+ * @invariant filled = [sum of colHeights]
+ * @invariant zobristKey = [the XOR of the zobrist keys of every set bit, by plane and cell]
+ *
+ * @correspondence self = planes, [number of rows] = height, [number of columns] = width,
+ * [number of consecutive tokens in a row to win] = winningNum
+ */
+public class GameBoardBit extends AbsGameBoard implements IGameBoard {
+    private int width;
+    private int height;
+    private static final char BLANK_SPACE = ' ';
+    private int winningNum;
+    private int stride;
+    private long[][] planes;
+    private int[] colHeights;
+    private int filled;
+    private ZobristTable zobrist;
+    private long zobristKey;
+
+    /**
+     * Constructor that will create the bitboard for gameplay
+     * @pre [The user has chosen to play a game of connectX with a bitboard]
+     * @param rows The number of rows to put in the gameboard
+     * @param cols The number of columns to put in the gameboard
+     * @param numToWin The number of consecutive tokens in a row to win the game
+     * @post height = rows AND width = cols AND winningNum = numToWin AND [every plane is empty]
+     */
+    public GameBoardBit(int rows, int cols, int numToWin) {
+        this.height = rows;
+        this.width = cols;
+        this.winningNum = numToWin;
+        this.stride = rows + 1;
+        // one bit per cell plus the sentinel row, rounded up to whole longs
+        int words = (cols * stride + 63) >>> 6;
+        this.planes = new long[MAXPLAYERS][words];
+        this.colHeights = new int[cols];
+        this.filled = 0;
+        this.zobrist = ZobristTable.forBoard(rows, cols, MAXPLAYERS);
+        this.zobristKey = 0;
+    }
+
+    public int getNumRows() {
+        return height;
+    }
+
+    public int getNumColumns() {
+        return width;
+    }
+
+    public int getNumToWin() {
+        return winningNum;
+    }
+
+    public void placeToken(char p, int c) {
+        // the lowest open row is the height of the column, so there is no need to scan
+        int bit = c * stride + colHeights[c];
+        int player = PlayerTokens.indexOf(p);
+        planes[player][bit >>> 6] |= 1L << bit;
+        zobristKey ^= zobrist.keyOf(player, colHeights[c], c);
+        colHeights[c]++;
+        filled++;
+    }
+
+    public void removeToken(int c) {
+        colHeights[c]--;
+        int bit = c * stride + colHeights[c];
+        for (int i = 0; i < MAXPLAYERS; i++) {
+            if ((planes[i][bit >>> 6] & (1L << bit)) != 0) {
+                planes[i][bit >>> 6] &= ~(1L << bit);
+                zobristKey ^= zobrist.keyOf(i, colHeights[c], c);
+            }
+        }
+        filled--;
+    }
+
+    public char whatsAtPos(int row, int col) {
+        int bit = col * stride + row;
+        for (int i = 0; i < MAXPLAYERS; i++) {
+            if ((planes[i][bit >>> 6] & (1L << bit)) != 0) {
+                return PlayerTokens.tokenAt(i);
+            }
+        }
+        return BLANK_SPACE;
+    }
+
+    @Override
+    public boolean isPlayerAtPos(int row, int col, char player) {
+        int i = PlayerTokens.find(player);
+        if (i < 0) {
+            // not a player's token, such as a blank, so compare it like any other board would
+            return whatsAtPos(row, col) == player;
+        }
+        int bit = col * stride + row;
+        return (planes[i][bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public int getColumnHeight(int c) {
+        return colHeights[c];
+    }
+
+    public int getNumFilled() {
+        return filled;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public void reset() {
+        // clear the words that hold each column's tokens, which may also clear the bits of its neighbours
+        for (int c = 0; c < width; c++) {
+            if (colHeights[c] > 0) {
+                int first = (c * stride) >>> 6;
+                int last = (c * stride + colHeights[c] - 1) >>> 6;
+                for (long[] plane : planes) {
+                    for (int w = first; w <= last; w++) {
+                        plane[w] = 0;
+                    }
+                }
+                colHeights[c] = 0;
+            }
+        }
+        filled = 0;
+        zobristKey = 0;
+    }
+
+    @Override
+    public boolean checkForWin(int c) {
+        if (colHeights[c] == 0) {
+            return false;
+        }
+        // the last token placed in column c is on top of the column
+        int bit = c * stride + colHeights[c] - 1;
+        long[] plane = null;
+        for (int i = 0; i < MAXPLAYERS && plane == null; i++) {
+            if ((planes[i][bit >>> 6] & (1L << bit)) != 0) {
+                plane = planes[i];
+            }
+        }
+        // vertical, horizontal, and both diagonals
+        return hasRunThrough(plane, bit, 1) || hasRunThrough(plane, bit, stride)
+                || hasRunThrough(plane, bit, stride + 1) || hasRunThrough(plane, bit, stride - 1);
+    }
+
+    /**
+     * This function checks to see if there are winningNum set bits in a row through bit, stepping by d
+     * @pre [bit is set in plane] AND d > 0
+     * @param plane the plane of the player who owns bit
+     * @param bit the bit of the last token placed
+     * @param d the distance between neighbouring cells in the direction being checked
+     * @post [returns true iff some run bit - j*d, ..., bit + (winningNum - 1 - j)*d is set in plane] AND self = #self
+     * @return true if the player has winningNum tokens in a row through bit in this direction
+     */
+    private boolean hasRunThrough(long[] plane, int bit, int d) {
+        // count the player's bits outwards from bit both ways, which is at most 2 * (winningNum - 1) probes;
+        // a line leaving the board through the top or bottom of a column lands on a sentinel bit, which is
+        // never set, so it can't carry on into the next column
+        int count = 1;
+        for (int b = bit - d; count < winningNum && b >= 0 && (plane[b >>> 6] & (1L << b)) != 0; b -= d) {
+            count++;
+        }
+        int end = width * stride;
+        for (int b = bit + d; count < winningNum && b < end && (plane[b >>> 6] & (1L << b)) != 0; b += d) {
+            count++;
+        }
+        return count >= winningNum;
+    }
+}
@@ -1,26 +1,42 @@
 package cpsc2150.extendedConnectX.models;
-import java.util.*;
+
+import java.util.Arrays;
 // Andy Bodell
 /**
- * This class is designed to create the gameboard using a HashMap, place tokens, and keep track of
- * what marker/player is at each position on the gameboard
+ * This class is designed to create the gameboard using a hash table that only holds the positions
+ * that have tokens, place tokens, and keep track of what marker/player is at each position on the gameboard
+ *
+ * The hash table uses open addressing with linear probing over two parallel arrays, so a lookup never
+ * allocates. A position is stored as the key row * width + col + 1, which leaves 0 free to mark an empty slot.
+ *
  *@invariant MINROWS <= height <= MAXROWS
  *@invariant MINCOLUMNS <= width <= MAXCOLUMNS
  *@invariant MINNUMTOWIN <= winningNum <= MAXNUMTOWIN
  *@invariant Must place a marker within the specified dimensions
  *@invariant Markers cannot be placed at a non-empty position
  *@invariant Board has no gaps between tokens
+ *@invariant [keys.length is a power of 2] AND size <= keys.length * MAX_LOAD
+ *@invariant 0 <= colHeights[c] <= height
+ *@invariant zobristKey = [the XOR of the zobrist keys of every entry in the table]
  *
- * @correspondence self = gameBoard, number of rows] = height, [number of columns] = width,
- * [number of consecutive tokens in a row to win] = winningNum
+ * @correspondence self = [the positions in keys mapped to their tokens in tokens], number of rows] = height,
+ * [number of columns] = width, [number of consecutive tokens in a row to win] = winningNum
  */
 
 public class GameBoardMem extends AbsGameBoard implements IGameBoard {
     private int width;
     private int height;
     private static final char BLANK_SPACE = ' ';
+    private static final int EMPTY_KEY = 0;
+    private static final int START_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.5;
     private int winningNum;
-    private Map<Character, List<BoardPosition>> gameBoard;
+    private int[] keys;
+    private char[] tokens;
+    private int size;
+    private int[] colHeights;
+    private ZobristTable zobrist;
+    private long zobristKey;
 
     /**
      * This will be the constructor that will create the gamebaord
@@ -28,13 +44,18 @@ public class GameBoardMem extends AbsGameBoard implements IGameBoard {
      * @param rows number of rows in the gameboard
      * @param cols number of columns in the gameboard
      * @param numToWin the number of consecutive tokens in a row to win the game
-     * @post [The rows x cols gameboard has been created and the map is empty]
+     * @post [The rows x cols gameboard has been created and the table is empty]
      */
     public GameBoardMem(int rows, int cols, int numToWin) {
         this.height = rows;
         this.width = cols;
         this.winningNum = numToWin;
-        this.gameBoard = new HashMap<Character, List<BoardPosition>>();
+        this.keys = new int[START_CAPACITY];
+        this.tokens = new char[START_CAPACITY];
+        this.size = 0;
+        this.colHeights = new int[cols];
+        this.zobrist = ZobristTable.forBoard(rows, cols, MAXPLAYERS);
+        this.zobristKey = 0;
     }
 
     public int getNumRows() { return height; }
@@ -48,41 +69,147 @@ public class GameBoardMem extends AbsGameBoard implements IGameBoard {
     }
 
     public void placeToken(char p, int c) {
-        // if the key for the player token is not already in the board (first turn) we must add it along with an empty list
-        gameBoard.putIfAbsent(p, new ArrayList<BoardPosition>());
-        BoardPosition pos = new BoardPosition(0, c);
-        for (int i = 0; whatsAtPos(pos) != BLANK_SPACE && i < getNumRows(); i++) {
-            pos = new BoardPosition(i, c);
+        // the lowest open row is the height of the column, so there is no need to search for it
+        if (size + 1 > keys.length * MAX_LOAD) {
+            grow();
+        }
+        insert(keyOf(colHeights[c], c), p);
+        zobristKey ^= zobrist.keyOf(PlayerTokens.indexOf(p), colHeights[c], c);
+        size++;
+        colHeights[c]++;
+    }
+
+    public void removeToken(int c) {
+        colHeights[c]--;
+        int slot = find(keyOf(colHeights[c], c));
+        zobristKey ^= zobrist.keyOf(PlayerTokens.indexOf(tokens[slot]), colHeights[c], c);
+        delete(slot);
+        size--;
+    }
+
+    public char whatsAtPos(int row, int col) {
+        int slot = find(keyOf(row, col));
+        // if the position is not in the table it is a blank space
+        return slot < 0 ? BLANK_SPACE : tokens[slot];
+    }
+
+    public int getColumnHeight(int c) {
+        return colHeights[c];
+    }
+
+    public int getNumFilled() {
+        // every entry in the table is one token
+        return size;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public void reset() {
+        // the table keeps its capacity so the next game doesn't have to grow it again
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY_KEY);
+            Arrays.fill(colHeights, 0);
         }
-        // when the loop ends we will be at the first blank space in the column
-        gameBoard.get(p).add(pos);
+        size = 0;
+        zobristKey = 0;
+    }
+
+    /**
+     * packs a position into a key for the table
+     * @param row the row of the position
+     * @param col the column of the position
+     * @return the key for (row, col)
+     * @pre 0 <= row < height AND 0 <= col < width
+     * @post keyOf = row * width + col + 1
+     */
+    private int keyOf(int row, int col) {
+        return row * width + col + 1;
+    }
+
+    /**
+     * returns the slot the probe sequence for key starts at
+     * @param key the key to hash
+     * @param capacity the number of slots in the table
+     * @return the first slot to look at for key
+     * @pre [capacity is a power of 2]
+     * @post 0 <= slotOf < capacity
+     */
+    private static int slotOf(int key, int capacity) {
+        // multiplying by the golden ratio spreads out keys from neighbouring cells
+        return (key * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(capacity));
     }
 
-    public char whatsAtPos(BoardPosition pos) {
-        // traverse the map
-        for (Map.Entry<Character, List<BoardPosition>> v : gameBoard.entrySet()) {
-            // if the value at key v, which is a list, contains the position then we return the key
-            if (v.getValue().contains(pos)) {
-                return v.getKey();
+    /**
+     * finds the slot holding key
+     * @param key the key to look for
+     * @return the slot holding key, or -1 if key is not in the table
+     * @post self = #self
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for (int i = slotOf(key, keys.length); keys[i] != EMPTY_KEY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
             }
         }
-        // otherwise we return a blank space
-        return BLANK_SPACE;
+        return -1;
     }
 
-    @Override
-    public boolean isPlayerAtPos(BoardPosition pos, char player) {
-        // if the key is not in the map at all, we can return false right away
-        if (!gameBoard.containsKey(player)) {
-            return false;
+    /**
+     * puts key in the first free slot of its probe sequence
+     * @param key the key to add
+     * @param p the token at the position of key
+     * @pre [key is not in the table] AND [the table has a free slot]
+     * @post [key maps to p]
+     */
+    private void insert(int key, char p) {
+        int mask = keys.length - 1;
+        int i = slotOf(key, keys.length);
+        while (keys[i] != EMPTY_KEY) {
+            i = (i + 1) & mask;
         }
-        // traverse the map
-        for (Map.Entry<Character, List<BoardPosition>> v : gameBoard.entrySet()) {
-            // check to see if the list at key v contains the position as well as if the key is equal to the players token
-            if (v.getValue().contains(pos) && v.getKey().equals(player)) {
-                return true;
+        keys[i] = key;
+        tokens[i] = p;
+    }
+
+    /**
+     * empties slot and moves later entries of the probe sequence back so that none of them
+     * are cut off from where their probe sequence starts
+     * @param slot the slot to empty
+     * @pre keys[slot] != EMPTY_KEY
+     * @post [the key in #keys[slot] is no longer in the table and every other entry can still be found]
+     */
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; keys[i] != EMPTY_KEY; i = (i + 1) & mask) {
+            int home = slotOf(keys[i], keys.length);
+            // the entry at i can fill the hole if the hole is between its home slot and i
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                tokens[hole] = tokens[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY_KEY;
+    }
+
+    /**
+     * doubles the size of the table and rehashes every entry into it
+     * @post keys.length = 2 * #keys.length AND [the table holds the same entries]
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        char[] oldTokens = tokens;
+        keys = new int[oldKeys.length * 2];
+        tokens = new char[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                insert(oldKeys[i], oldTokens[i]);
             }
         }
-        return false;
     }
 }
@@ -0,0 +1,154 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.nio.ByteBuffer;
+
+// Andy Bodell
+/**
+ * This class is designed to create the gameboard in one block of off-heap memory from a {@link BoardArena},
+ * place tokens, and keep track of what marker/player is at specific positions. Only a few fields live on the
+ * heap, so a server can keep thousands of boards without the garbage collector having to trace their cells,
+ * and a finished board can be released so its block is reused by the next game.
+ *
+ * The block starts with one byte per column holding the column's height, followed by one byte per cell in
+ * column-major order holding 0 for a blank space or 1 + the player's index in {@link PlayerTokens}.
+ *
+ * @invariant MINROWS <= height <= MAXROWS
+ * @invariant MINCOLUMNS <= width <= MAXCOLUMNS
+ * @invariant MINNUMTOWIN <= winningNum <= MAXNUMTOWIN
+ * @invariant block = null OR block.capacity() = width + width * height
+ * @invariant 0 <= [height of column c] = block.get(c) <= height AND
+ *            [the cell of (r, c) is block.get(width + c * height + r), nonzero exactly for r below the column's height]
+ * @invariant filled = [sum of column heights]
+ * @invariant zobristKey = [the XOR of the zobrist keys of every token on the board]
+ *
+ * @correspondence self = block, [number of rows] = height, [number of columns] = width,
+ * [number of consecutive tokens in a row to win] = winningNum
+ */
+public class GameBoardOffHeap extends AbsGameBoard implements IGameBoard {
+    private int width;
+    private int height;
+    private static final char BLANK_SPACE = ' ';
+    private int winningNum;
+    private BoardArena arena;
+    private ByteBuffer block;
+    private int filled;
+    private ZobristTable zobrist;
+    private long zobristKey;
+
+    /**
+     * Constructor that will create the gameboard in the default arena
+     * @pre [The user has chosen to play a game of connectX with an off-heap gameboard]
+     * @param rows The number of rows to put in the gameboard
+     * @param cols The number of columns to put in the gameboard
+     * @param numToWin The number of consecutive tokens in a row to win the game
+     * @post height = rows AND width = cols AND winningNum = numToWin AND arena = BoardArena.getDefault() AND
+     * [every position is a blank space]
+     */
+    public GameBoardOffHeap(int rows, int cols, int numToWin) {
+        this(rows, cols, numToWin, BoardArena.getDefault());
+    }
+
+    /**
+     * Constructor that will create the gameboard in arena
+     * @param rows The number of rows to put in the gameboard
+     * @param cols The number of columns to put in the gameboard
+     * @param numToWin The number of consecutive tokens in a row to win the game
+     * @param arena The arena the gameboard's block comes from
+     * @post height = rows AND width = cols AND winningNum = numToWin AND this.arena = arena AND
+     * [every position is a blank space]
+     */
+    public GameBoardOffHeap(int rows, int cols, int numToWin, BoardArena arena) {
+        this.height = rows;
+        this.width = cols;
+        this.winningNum = numToWin;
+        this.arena = arena;
+        // the arena hands out zeroed blocks, so every column starts empty
+        this.block = arena.allocate(cols + cols * rows);
+        this.filled = 0;
+        this.zobrist = ZobristTable.forBoard(rows, cols, MAXPLAYERS);
+        this.zobristKey = 0;
+    }
+
+    public int getNumRows() {
+        return height;
+    }
+
+    public int getNumColumns() {
+        return width;
+    }
+
+    public int getNumToWin() {
+        return winningNum;
+    }
+
+    public void placeToken(char p, int c) {
+        int row = block.get(c);
+        int player = PlayerTokens.indexOf(p);
+        block.put(width + c * height + row, (byte) (player + 1));
+        block.put(c, (byte) (row + 1));
+        zobristKey ^= zobrist.keyOf(player, row, c);
+        filled++;
+    }
+
+    public void removeToken(int c) {
+        int row = block.get(c) - 1;
+        int cell = width + c * height + row;
+        zobristKey ^= zobrist.keyOf(block.get(cell) - 1, row, c);
+        block.put(cell, (byte) 0);
+        block.put(c, (byte) row);
+        filled--;
+    }
+
+    public char whatsAtPos(int row, int col) {
+        int cell = block.get(width + col * height + row);
+        return cell == 0 ? BLANK_SPACE : PlayerTokens.tokenAt(cell - 1);
+    }
+
+    @Override
+    public boolean isPlayerAtPos(int row, int col, char player) {
+        int i = PlayerTokens.find(player);
+        if (i < 0) {
+            // not a player's token, such as a blank, so compare it like any other board would
+            return whatsAtPos(row, col) == player;
+        }
+        // compare indices so the token of the cell never has to be looked up
+        return block.get(width + col * height + row) == i + 1;
+    }
+
+    public int getColumnHeight(int c) {
+        return block.get(c);
+    }
+
+    public int getNumFilled() {
+        return filled;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public void reset() {
+        for (int c = 0; c < width; c++) {
+            int h = block.get(c);
+            for (int r = 0; r < h; r++) {
+                block.put(width + c * height + r, (byte) 0);
+            }
+            block.put(c, (byte) 0);
+        }
+        filled = 0;
+        zobristKey = 0;
+    }
+
+    /**
+     * gives the gameboard's block back to its arena so a later gameboard can reuse it
+     * @pre [the gameboard will not be used again]
+     * @post block = null AND [the block is zeroed and back in arena]
+     */
+    public void release() {
+        // reset only clears the positions that were used, so the arena has nothing left to zero
+        reset();
+        arena.free(block, 0);
+        block = null;
+    }
+}
@@ -0,0 +1,176 @@
+package cpsc2150.extendedConnectX.models;
+// Andy Bodell
+/**
+ * This class is designed to create the gameboard with 4 bits per position, place tokens,
+ * and keep track of what marker/player is at specific positions
+ *
+ * There are at most MAXPLAYERS = 10 players, so a position only needs to hold 0 for a blank space or
+ * 1 + the player's index in {@link PlayerTokens}. Two positions are packed into every byte of one flat
+ * array in row-major order, a quarter of the memory of GameBoard's char[][], and a horizontal line of
+ * tokens is a run of neighbouring bytes. Tokens are only turned into chars at whatsAtPos.
+ *
+ * @invariant MINROWS <= height <= MAXROWS
+ * @invariant MINCOLUMNS <= width <= MAXCOLUMNS
+ * @invariant MINNUMTOWIN <= winningNum <= MAXNUMTOWIN
+ * @invariant cells.length = (height * width + 1) / 2 AND
+ *            [position (r, c) is nibble (r * width + c) of cells, the low 4 bits of a byte holding the even nibble]
+ * @invariant 0 <= colHeights[c] <= height AND [the nibble of (r, c) is nonzero exactly for r < colHeights[c]]
+ * @invariant filled = [sum of colHeights]
+ * @invariant zobristKey = [the XOR of the zobrist keys of every token on the board]
+ *
+ * @correspondence self = cells, [number of rows] = height, [number of columns] = width,
+ * [number of consecutive tokens in a row to win] = winningNum
+ */
+public class GameBoardPacked extends AbsGameBoard implements IGameBoard {
+    private int width;
+    private int height;
+    private static final char BLANK_SPACE = ' ';
+    private int winningNum;
+    private byte[] cells;
+    private int[] colHeights;
+    private int filled;
+    private ZobristTable zobrist;
+    private long zobristKey;
+
+    /**
+     * Constructor that will create the packed gameboard for gameplay
+     * @pre [The user has chosen to play a game of connectX with a packed gameboard]
+     * @param rows The number of rows to put in the gameboard
+     * @param cols The number of columns to put in the gameboard
+     * @param numToWin The number of consecutive tokens in a row to win the game
+     * @post height = rows AND width = cols AND winningNum = numToWin AND [every position is a blank space]
+     */
+    public GameBoardPacked(int rows, int cols, int numToWin) {
+        this.height = rows;
+        this.width = cols;
+        this.winningNum = numToWin;
+        // a zeroed array is already all blank spaces
+        this.cells = new byte[(rows * cols + 1) / 2];
+        this.colHeights = new int[cols];
+        this.filled = 0;
+        this.zobrist = ZobristTable.forBoard(rows, cols, MAXPLAYERS);
+        this.zobristKey = 0;
+    }
+
+    public int getNumRows() {
+        return height;
+    }
+
+    public int getNumColumns() {
+        return width;
+    }
+
+    public int getNumToWin() {
+        return winningNum;
+    }
+
+    public void placeToken(char p, int c) {
+        int player = PlayerTokens.indexOf(p);
+        setNibble(colHeights[c] * width + c, player + 1);
+        zobristKey ^= zobrist.keyOf(player, colHeights[c], c);
+        colHeights[c]++;
+        filled++;
+    }
+
+    public void removeToken(int c) {
+        colHeights[c]--;
+        int index = colHeights[c] * width + c;
+        zobristKey ^= zobrist.keyOf(nibble(index) - 1, colHeights[c], c);
+        setNibble(index, 0);
+        filled--;
+    }
+
+    public char whatsAtPos(int row, int col) {
+        int value = nibble(row * width + col);
+        return value == 0 ? BLANK_SPACE : PlayerTokens.tokenAt(value - 1);
+    }
+
+    @Override
+    public boolean isPlayerAtPos(int row, int col, char player) {
+        int i = PlayerTokens.find(player);
+        if (i < 0) {
+            // not a player's token, such as a blank, so compare it like any other board would
+            return whatsAtPos(row, col) == player;
+        }
+        // compare indices so the token of the position never has to be looked up
+        return nibble(row * width + col) == i + 1;
+    }
+
+    @Override
+    public boolean checkForWin(int c) {
+        int row = colHeights[c] - 1;
+        if (row < 0) {
+            return false;
+        }
+        // the same four lines as IGameBoard, but comparing nibbles instead of turning every one into a token
+        int value = nibble(row * width + c);
+        int needed = winningNum - 1;
+        return run(row, c, 0, 1, value) + run(row, c, 0, -1, value) >= needed
+                || run(row, c, -1, 0, value) >= needed
+                || run(row, c, 1, 1, value) + run(row, c, -1, -1, value) >= needed
+                || run(row, c, -1, 1, value) + run(row, c, 1, -1, value) >= needed;
+    }
+
+    public int getColumnHeight(int c) {
+        return colHeights[c];
+    }
+
+    public int getNumFilled() {
+        return filled;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public void reset() {
+        for (int c = 0; c < width; c++) {
+            // the other position in each byte is the cell before or after it in row order: usually the same
+            // row of a neighbouring column, but on boards with an odd width the last cell of a row shares a
+            // byte with column 0 of the next row. Either way that position is cleared too or was blank
+            for (int r = 0; r < colHeights[c]; r++) {
+                cells[(r * width + c) >>> 1] = 0;
+            }
+            colHeights[c] = 0;
+        }
+        filled = 0;
+        zobristKey = 0;
+    }
+
+    /**
+     * returns the 4 bits stored for a position
+     * @param index the position's number in row-major order
+     * @return 0 for a blank space or 1 + the player's index
+     */
+    private int nibble(int index) {
+        return (cells[index >>> 1] >>> ((index & 1) << 2)) & 0xF;
+    }
+
+    /**
+     * counts the positions holding value in a row starting one step from (row, col) in direction (dRow, dCol)
+     * @return the number of consecutive positions holding value, at most winningNum - 1
+     */
+    private int run(int row, int col, int dRow, int dCol, int value) {
+        int count = 0;
+        int i = row + dRow;
+        int j = col + dCol;
+        while (count < winningNum - 1 && i >= 0 && i < height && j >= 0 && j < width
+                && nibble(i * width + j) == value) {
+            count++;
+            i += dRow;
+            j += dCol;
+        }
+        return count;
+    }
+
+    /**
+     * stores 4 bits for a position, leaving the other position in the same byte alone
+     * @param index the position's number in row-major order
+     * @param value 0 for a blank space or 1 + the player's index
+     */
+    private void setNibble(int index, int value) {
+        int shift = (index & 1) << 2;
+        cells[index >>> 1] = (byte) ((cells[index >>> 1] & ~(0xF << shift)) | (value << shift));
+    }
+}
@@ -0,0 +1,286 @@
+package cpsc2150.extendedConnectX.models;
+// Andy Bodell
+/**
+ * This class runs a game of connectX on an {@link IGameBoard} without any screens, so that games can
+ * be played by computer players and simulations. Players take turns in the order of {@link PlayerTokens}
+ * and every move can be undone by taking the token back off the board, so the board is never copied.
+ *
+ * @invariant MINPLAYERS <= numPlayers <= MAXPLAYERS
+ * @invariant 0 <= numMoves <= [number of positions on board] AND numMoves = board.getNumFilled()
+ * @invariant moves[0...numMoves - 1] = [the columns played so far, in order]
+ * @invariant winner = NO_WINNER OR [the last move made winner the winner]
+ * @invariant threats = null OR [threats counts the tokens on board]
+ *
+ * @correspondence self = [board and the moves that were played on it], [the current player] = numMoves mod numPlayers
+ */
+public class GameEngine {
+    /**
+     * returned by getWinner when nobody has won the game
+     */
+    public static final int NO_WINNER = -1;
+
+    private IGameBoard board;
+    private int numPlayers;
+    private int[] moves;
+    private int numMoves;
+    private int winner;
+    private ThreatTracker threats;
+
+    /**
+     * Constructor that will start a new game on board
+     * @pre [board is empty] AND MINPLAYERS <= np <= MAXPLAYERS
+     * @param board the gameboard the game will be played on
+     * @param np the number of players in the game
+     * @post this.board = board AND numPlayers = np AND numMoves = 0 AND winner = NO_WINNER
+     */
+    public GameEngine(IGameBoard board, int np) {
+        this.board = board;
+        this.numPlayers = np;
+        this.moves = new int[board.getNumRows() * board.getNumColumns()];
+        this.numMoves = 0;
+        this.winner = NO_WINNER;
+        this.threats = null;
+    }
+
+    /**
+     * Constructor that will continue a game that was already started on board, such as one restored from
+     * a saved snapshot
+     * @pre [board holds the tokens of moves[0...n - 1] played in order] AND MINPLAYERS <= np <= MAXPLAYERS AND
+     * (w = NO_WINNER OR [move n - 1 won the game for player w])
+     * @param board the gameboard the game is being played on
+     * @param np the number of players in the game
+     * @param moves the columns played so far, in order
+     * @param n the number of moves played so far
+     * @param w the player who won, or NO_WINNER
+     * @post this.board = board AND numPlayers = np AND this.moves[0...n - 1] = moves[0...n - 1] AND
+     * numMoves = n AND winner = w
+     */
+    public GameEngine(IGameBoard board, int np, int[] moves, int n, int w) {
+        this(board, np);
+        System.arraycopy(moves, 0, this.moves, 0, n);
+        this.numMoves = n;
+        this.winner = w;
+    }
+
+    /**
+     * returns the gameboard the game is being played on
+     * @return the gameboard
+     * @post getBoard = board
+     */
+    public IGameBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * moves the game onto another gameboard holding the same tokens, such as a copy of the current board
+     * in a different implementation
+     * @pre [newBoard has the same dimensions, tokens and column heights as board]
+     * @param newBoard the gameboard to continue the game on
+     * @post board = newBoard AND [the moves and winner are unchanged]
+     */
+    public void replaceBoard(IGameBoard newBoard) {
+        this.board = newBoard;
+    }
+
+    /**
+     * starts keeping a {@link ThreatTracker} up to date with every move, so wins are found from the windows
+     * through the placed token instead of by scanning the board. Whoever plays a game that computer players
+     * search should call this once at the start, so the searches share one tracker instead of each building
+     * its own
+     * @return the tracker for this game
+     * @post [threats counts the tokens on board] AND trackThreats = threats AND [the board is unchanged]
+     */
+    public ThreatTracker trackThreats() {
+        if (threats == null) {
+            threats = new ThreatTracker(board, numPlayers);
+        }
+        return threats;
+    }
+
+    /**
+     * returns true if a {@link ThreatTracker} is being kept up to date with every move
+     * @post isTrackingThreats = (threats != null)
+     */
+    public boolean isTrackingThreats() {
+        return threats != null;
+    }
+
+    /**
+     * stops keeping the tracker started by trackThreats, so a search that started one can leave the game as
+     * it found it
+     * @post threats = null AND [the board is unchanged]
+     */
+    public void stopTrackingThreats() {
+        threats = null;
+    }
+
+    /**
+     * returns the number of players in the game
+     * @return the number of players
+     * @post getNumPlayers = numPlayers
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * returns the number of the player whose turn it is
+     * @return the current player number
+     * @post getCurrentPlayer = numMoves mod numPlayers
+     */
+    public int getCurrentPlayer() {
+        return numMoves % numPlayers;
+    }
+
+    /**
+     * returns the token of the player whose turn it is
+     * @return the current player's token
+     * @post getCurrentToken = PlayerTokens.tokenAt(getCurrentPlayer())
+     */
+    public char getCurrentToken() {
+        return PlayerTokens.tokenAt(getCurrentPlayer());
+    }
+
+    /**
+     * returns how many moves have been made
+     * @return the number of moves made
+     * @post getNumMoves = numMoves
+     */
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    /**
+     * returns the column played on move i
+     * @param i the number of the move, starting from 0
+     * @return the column of move i
+     * @pre 0 <= i < numMoves
+     * @post getMove = moves[i]
+     */
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    /**
+     * returns the number of the player who won
+     * @return the winning player number, or NO_WINNER if nobody has won
+     * @post getWinner = winner
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * returns true if the game has ended in a tie
+     * @return true iff the board is full and nobody won
+     * @post self = #self
+     */
+    public boolean isTie() {
+        return winner == NO_WINNER && board.checkTie();
+    }
+
+    /**
+     * returns true if the game is over because somebody won or the board is full
+     * @return true iff the game is over
+     * @post self = #self
+     */
+    public boolean isGameOver() {
+        return winner != NO_WINNER || board.checkTie();
+    }
+
+    /**
+     * returns true if the current player can play in column c
+     * @param c the column to check
+     * @return true iff the game is not over and column c is not full
+     * @pre 0 <= c < board.getNumColumns()
+     * @post self = #self
+     */
+    public boolean isLegalMove(int c) {
+        return !isGameOver() && board.checkIfFree(c);
+    }
+
+    /**
+     * fills legal with the columns the current player can play in, from left to right
+     * @param legal the array to put the columns in
+     * @return the number of legal moves
+     * @pre legal.length >= board.getNumColumns()
+     * @post legal[0...getLegalMoves - 1] = [the legal columns] AND self = #self
+     */
+    public int getLegalMoves(int[] legal) {
+        if (isGameOver()) {
+            return 0;
+        }
+        int count = 0;
+        for (int c = 0; c < board.getNumColumns(); c++) {
+            if (board.checkIfFree(c)) {
+                legal[count] = c;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * places the current player's token in column c and passes the turn to the next player
+     * @param c the column to play in
+     * @return true iff the move won the game
+     * @pre isLegalMove(c)
+     * @post [the current player's token is on top of column c] AND numMoves = #numMoves + 1 AND
+     * [winner is the player who moved if the move won]
+     */
+    public boolean applyMove(int c) {
+        return place(getCurrentPlayer(), board.getColumnHeight(c), c);
+    }
+
+    /**
+     * places the current player's token in column c like applyMove, and says where it landed and whether
+     * it won or tied the game, so callers that show the move don't have to work either out again
+     * @param c the column to play in
+     * @return where the token landed and what it did to the game
+     * @pre isLegalMove(c)
+     * @post [the current player's token is on top of column c] AND numMoves = #numMoves + 1 AND
+     * [winner is the player who moved if the move won] AND makeMove.getRow() = #board.getColumnHeight(c)
+     */
+    public MoveResult makeMove(int c) {
+        int row = board.getColumnHeight(c);
+        boolean won = place(getCurrentPlayer(), row, c);
+        return new MoveResult(row, c,
+                won ? MoveResult.WIN : (board.checkTie() ? MoveResult.TIE : MoveResult.CONTINUE));
+    }
+
+    /**
+     * places player's token in column c and records the move; both ways of making a move go through here
+     * @param player the player moving, who must be the current player
+     * @param row the row the token lands in
+     * @return true iff the move won the game
+     * @pre isLegalMove(c) AND player = getCurrentPlayer() AND row = board.getColumnHeight(c)
+     * @post [player's token is at (row, c)] AND numMoves = #numMoves + 1 AND
+     * [winner is player if the move won]
+     */
+    private boolean place(int player, int row, int c) {
+        board.placeToken(PlayerTokens.tokenAt(player), c);
+        moves[numMoves] = c;
+        numMoves++;
+        boolean won = threats != null ? threats.place(player, row, c) : board.checkForWin(c);
+        if (won) {
+            winner = player;
+        }
+        return won;
+    }
+
+    /**
+     * takes back the last move and gives the turn back to the player who made it
+     * @pre numMoves > 0
+     * @post [the token of the last move is removed] AND numMoves = #numMoves - 1 AND winner = NO_WINNER
+     */
+    public void undoMove() {
+        numMoves--;
+        int c = moves[numMoves];
+        board.removeToken(c);
+        if (threats != null) {
+            threats.remove(numMoves % numPlayers, board.getColumnHeight(c), c);
+        }
+        // the game stops at the first win, so the move being undone is the one that won
+        winner = NO_WINNER;
+    }
+}
@@ -60,6 +60,26 @@ public interface IGameBoard {
      */
     public void placeToken(char p, int c);
 
+    /**
+     * This method will take the last marker placed in column c back off the gameboard, so that moves
+     * can be undone without copying the board
+     * @pre getColumnHeight(c) > 0 AND 0 <= c < getNumColumns()
+     * @param c this is the column number the marker will be removed from
+     * @post [the highest marker in column c is now a blank space] AND getColumnHeight(c) = #getColumnHeight(c) - 1
+     * AND getNumFilled() = #getNumFilled() - 1
+     */
+    public void removeToken(int c);
+
+    /**
+     * This function returns what is in the gameboard at a certain row and column
+     * @pre 0 <= row < getNumRows() AND 0 <= col < getNumColumns()
+     * @param row This is the row of the position that is being checked
+     * @param col This is the column of the position that is being checked
+     * @post [returns the content at (row, col) which either is an empty space, or one of the markers] AND self = #self
+     * @return ['X' if X is at the position, 'O' if O is at the position, OR " " if the position is blank]
+     */
+    public char whatsAtPos(int row, int col);
+
     /**
      * This function returns what is in the gameboard at a certain position
      * @pre 0 <= pos.getRow() < MAXROWS AND 0 <= pos.getColumn() <= MAXCOLUMNS
@@ -67,7 +87,35 @@ public interface IGameBoard {
      * @post [returns the content at pos which either is an empty space, or one of the markers] AND self = #self
      * @return ['X' if X is at the position, 'O' if O is at the position, OR " " if the position is blank]
      */
-    public char whatsAtPos(BoardPosition pos);
+    public default char whatsAtPos(BoardPosition pos) {
+        return whatsAtPos(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * This function returns how many tokens are in column c, which is also the row the next token
+     * placed in column c will land in
+     * @pre 0 <= c < getNumColumns()
+     * @param c the column number that will be checked
+     * @post [returns the number of tokens in column c] AND self = #self
+     * @return the lowest blank row in column c, or getNumRows() if the column is full
+     */
+    public int getColumnHeight(int c);
+
+    /**
+     * This function returns how many tokens have been placed on the gameboard
+     * @post [returns the number of positions that are not blank] AND self = #self
+     * @return the number of tokens on the gameboard
+     */
+    public int getNumFilled();
+
+    /**
+     * This function returns a 64-bit hash of the tokens on the gameboard, which is the XOR of the
+     * ZobristTable.forBoard(getNumRows(), getNumColumns(), MAXPLAYERS) key of every token. Gameboards
+     * keep it up to date as tokens are placed and removed, so it costs nothing to read
+     * @post getZobristKey = [the XOR of the keys of every token on the board] AND self = #self
+     * @return the Zobrist key of the gameboard, which is 0 for an empty gameboard
+     */
+    public long getZobristKey();
 
     /**
      * This function will check to see if the game has resulted in a tie
@@ -77,16 +125,8 @@ public interface IGameBoard {
      * @return [true if none of the positions in the game board are empty]
      */
     public default boolean checkTie() {
-        // scan the top row to see if it is full
-        for (int i = 0; i < getNumColumns(); i++) {
-            BoardPosition topRow = new BoardPosition(getNumRows() - 1, i);
-            // if any position in the top row is empty then there is not a tie
-            // because the board is not full
-            if (whatsAtPos(topRow) == ' ') {
-                return false;
-            }
-        }
-        return true;
+        // every token fills exactly one position, so the board is full once the count reaches its size
+        return getNumFilled() == getNumRows() * getNumColumns();
     }
 
     /**
@@ -97,40 +137,43 @@ public interface IGameBoard {
      * @post [if true then column can accept another token] AND self = #self
      */
     public default boolean checkIfFree(int c) {
-        // create a boardposition object for the top row of the column
-        BoardPosition topRow = new BoardPosition(getNumRows() - 1,c);
-        // if the variable in the top row is blank then the column is free
-        if (whatsAtPos(topRow) == ' ') {
-            return true;
+        // if the column has fewer tokens than rows then the top row is still blank
+        return getColumnHeight(c) < getNumRows();
+    }
+
+    /**
+     * clears every token off the gameboard so it can be used for another game with the same dimensions.
+     * Implementations only clear the positions below each column's height instead of the whole gameboard
+     * @post [every position is a blank space] AND getNumFilled() = 0 AND getZobristKey() = 0 AND
+     * [the number of rows, columns and tokens to win are unchanged]
+     */
+    public default void reset() {
+        for (int c = 0; c < getNumColumns(); c++) {
+            while (getColumnHeight(c) > 0) {
+                removeToken(c);
+            }
         }
-        return false;
     }
 
     /**
      * returns true if last token placed in column c results in a win
      * @param c column number that will be checked
-     * @return true iff [checkHorizWin() OR checkVertWin() OR checkDiagWin() are true
-     * and first index of the column is not empty]
+     * @return true iff [checkHorizWin() OR checkVertWin() OR checkDiagWin() are true for the top token of
+     * column c and column c is not empty]
      * @pre 0 <= c < getNumColumns()
      * @post [if true game will be ended and current player will be named the winner, if false game will continue]
      * AND self = #self
      */
     public default boolean checkForWin(int c) {
-        // need to go the most recently placed token
-        // start on the top row
-        for (int i = getNumRows() - 1 ; i >= 0; i--) {
-            BoardPosition pos = new BoardPosition(i, c);
-            // find the first position that is not blank
-            if (whatsAtPos(pos) != ' ') {
-                if (checkHorizWin(pos, whatsAtPos(pos)) || checkDiagWin(pos, whatsAtPos(pos))
-                        || checkVertWin(pos, whatsAtPos(pos))) {
-                    // if there is a win of any kind return true
-                    return true;
-                }
-            }
+        // the most recently placed token is the top one in the column
+        int row = getColumnHeight(c) - 1;
+        if (row < 0) {
+            return false;
         }
-        // if the loop goes through the entire column without finding a token return false
-        return false;
+        char p = whatsAtPos(row, c);
+        // right, up, up and right, down and right; each line is also followed backwards
+        return checkLineWin(row, c, 0, 1, p) || checkLineWin(row, c, 1, 0, p)
+                || checkLineWin(row, c, 1, 1, p) || checkLineWin(row, c, -1, 1, p);
     }
 
     /**
@@ -143,7 +186,21 @@ public interface IGameBoard {
      * False if player does not have their marker at the position that is being checked]
      */
     public default boolean isPlayerAtPos(BoardPosition pos, char player) {
-        if (whatsAtPos(pos) == player) {
+        return isPlayerAtPos(pos.getRow(), pos.getColumn(), player);
+    }
+
+    /**
+     * This function will check to see if the player is at the row and column
+     * @pre 0 <= row < getNumRows() AND 0 <= col < getNumColumns()
+     * @param row The row of the position that will be checked
+     * @param col The column of the position that will be checked
+     * @param player The marker that will be checked
+     * @post [will return true if the player is present in the game board at (row, col)] AND self = #self
+     * @return [True if player has their marker at the position that is being checked
+     * False if player does not have their marker at the position that is being checked]
+     */
+    public default boolean isPlayerAtPos(int row, int col, char player) {
+        if (whatsAtPos(row, col) == player) {
             return true;
         }
         return false;
@@ -158,43 +215,7 @@ public interface IGameBoard {
      * @return [True if there are NUMTOWIN tokens in a row horizontally, false if there are not]
      */
     public default boolean checkHorizWin(BoardPosition pos, char p) {
-        int consecutiveCount = 1;
-        int row = pos.getRow();
-        int col = pos.getColumn();
-
-        // check to the right, until we reach a blank space or a different token
-        for (int i = col + 1; i < getNumColumns(); i++) {
-            BoardPosition toRight = new BoardPosition(row, i);
-            // if we encounter the player at the next position, add to consecutive count
-            if (isPlayerAtPos(toRight, p)) {
-                consecutiveCount++;
-                // if consecutive count equals NUMTOWIN we can return true
-                if (consecutiveCount == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                // if we encounter a blank space or a different token, we can exit the loop
-                break;
-            }
-        }
-
-        // now, we need to check to the left
-        for (int i = col - 1; i >= 0; i--) {
-            BoardPosition toLeft = new BoardPosition(row, i);
-            // if we encounter the player at the next position, add to the token count
-            if (isPlayerAtPos(toLeft, p)) {
-                consecutiveCount++;
-                // if consecutive count equals getNumToWin() we can return true
-                if (consecutiveCount == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                // if we encounter a different token or blank space, we can exit the loop
-                break;
-            }
-        }
-        // if consecutive count never equals getNumToWin() then we will return false
-        return false;
+        return checkLineWin(pos.getRow(), pos.getColumn(), 0, 1, p);
     }
 
     /**
@@ -206,24 +227,7 @@ public interface IGameBoard {
      * @return [True if there are getNumToWin() tokens in a row vertically, false if there is not]
      */
     public default boolean checkVertWin(BoardPosition pos, char p) {
-        int consecutiveCount = 1;
-        int row = pos.getRow();
-        int col = pos.getColumn();
-
-        // traverse down
-
-        for (int i = row - 1; i >= 0; i--) {
-            BoardPosition next = new BoardPosition(i, col);
-            if (isPlayerAtPos(next, p)) {
-                consecutiveCount++;
-                if (consecutiveCount == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                break;
-            }
-        }
-        return false;
+        return checkLineWin(pos.getRow(), pos.getColumn(), 1, 0, p);
     }
 
     /**
@@ -235,65 +239,53 @@ public interface IGameBoard {
      * @return [True if there are getNumToWin tokens in a row diagonally, false if there is not]
      */
     public default boolean checkDiagWin(BoardPosition pos, char p) {
-        int row = pos.getRow();
-        int col = pos.getColumn();
-        int consecutiveCount = 1;
-        // check down and to the left
-        for (int i = row + 1, j = col - 1; i < getNumRows() && j >= 0; i++, j--) {
-            BoardPosition downToLeft = new BoardPosition(i, j);
-            // if the same token is found at the next position, increment consecutiveCount
-            if (isPlayerAtPos(downToLeft, p)) {
-                consecutiveCount++;
-                if (consecutiveCount == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                // if a different token or a blank space is encountered we can exit the loop
-                break;
-            }
-        }
-
-        // check up and to the right
-        for (int i = row - 1, j = col + 1; i >= 0 && j < getNumColumns(); i--, j++) {
-            BoardPosition upToRight = new BoardPosition(i, j);
-            if (isPlayerAtPos(upToRight, p)) {
-                consecutiveCount++;
-                if (consecutiveCount == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                break;
-            }
-        }
+        // up and to the right (and down and to the left), then down and to the right (and up and to the left)
+        return checkLineWin(pos.getRow(), pos.getColumn(), 1, 1, p)
+                || checkLineWin(pos.getRow(), pos.getColumn(), -1, 1, p);
+    }
 
-        // check down and to the right, have to reset consecutive count for this diagonal
-        consecutiveCount = 1;
-        for (int i = row + 1, j = col + 1; i < getNumRows() && j < getNumColumns(); i++, j++) {
-            BoardPosition downRight = new BoardPosition(i,j);
-            if (isPlayerAtPos(downRight, p)) {
-                consecutiveCount++;
-                if (consecutiveCount == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                break;
-            }
-        }
+    /**
+     * This function checks to see if the marker at (row, col) is part of getNumToWin() markers in a row along
+     * the line through it with direction (dRow, dCol), counting both ways along the line
+     * @pre 0 <= row < getNumRows() AND 0 <= col < getNumColumns() AND [p is at (row, col)] AND
+     * -1 <= dRow <= 1 AND -1 <= dCol <= 1 AND (dRow != 0 OR dCol != 0)
+     * @param row The row of the marker
+     * @param col The column of the marker
+     * @param dRow How far each step along the line moves up
+     * @param dCol How far each step along the line moves right
+     * @param p The marker to count
+     * @post [returns true if there are getNumToWin() consecutive p markers through (row, col) on the line] AND self = #self
+     * @return [True if there are getNumToWin() tokens in a row along the line, false if there are not]
+     */
+    public default boolean checkLineWin(int row, int col, int dRow, int dCol, char p) {
+        int needed = getNumToWin() - 1;
+        int forward = countConsecutive(row, col, dRow, dCol, p, needed);
+        return forward == needed || forward + countConsecutive(row, col, -dRow, -dCol, p, needed - forward) == needed;
+    }
 
-        // check up and to the left
-        for (int i = row - 1, j = col - 1; i >= 0 && j >= 0; i--, j--) {
-            BoardPosition upLeft = new BoardPosition(i, j);
-            if (isPlayerAtPos(upLeft, p)) {
-                consecutiveCount++;
-                if (consecutiveCount == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                break;
-            }
+    /**
+     * This function counts the p markers in a row starting one step from (row, col) in direction (dRow, dCol),
+     * stopping at the edge of the board, a different marker, a blank space or once limit markers are counted
+     * @pre 0 <= row < getNumRows() AND 0 <= col < getNumColumns() AND -1 <= dRow <= 1 AND -1 <= dCol <= 1 AND limit >= 0
+     * @param row The row to start from
+     * @param col The column to start from
+     * @param dRow How far each step moves up
+     * @param dCol How far each step moves right
+     * @param p The marker to count
+     * @param limit The most markers to count
+     * @post [returns the number of consecutive p markers after (row, col) in the direction, at most limit] AND self = #self
+     * @return The number of consecutive markers
+     */
+    public default int countConsecutive(int row, int col, int dRow, int dCol, char p, int limit) {
+        int count = 0;
+        int i = row + dRow;
+        int j = col + dCol;
+        while (count < limit && i >= 0 && i < getNumRows() && j >= 0 && j < getNumColumns() && isPlayerAtPos(i, j, p)) {
+            count++;
+            i += dRow;
+            j += dCol;
         }
-        // if consecutiveCount never equals getNumToWin() then we return false
-        return false;
+        return count;
     }
 
 
@@ -0,0 +1,84 @@
+package cpsc2150.extendedConnectX.models;
+// Andy Bodell
+/**
+ * This class is what placing one token did: the position it landed in and whether it won the game, tied
+ * it, or the game goes on. It is worked out once, from the placed token only, by whoever placed it, so
+ * nobody has to search the column for the open row or check the board for a win or a tie again.
+ *
+ * @invariant 0 <= row < MAXROWS AND 0 <= col < MAXCOLUMNS AND outcome is one of CONTINUE, WIN, TIE
+ */
+public final class MoveResult {
+    /**
+     * what a move can do to the game
+     */
+    public static final int CONTINUE = 0, WIN = 1, TIE = 2;
+
+    private final int row;
+    private final int col;
+    private final int outcome;
+
+    /**
+     * Constructor that will create the result of a move
+     * @param row the row the token landed in
+     * @param col the column the token was placed in
+     * @param outcome CONTINUE, WIN or TIE
+     * @pre 0 <= row < MAXROWS AND 0 <= col < MAXCOLUMNS AND outcome is one of CONTINUE, WIN, TIE
+     * @post this.row = row AND this.col = col AND this.outcome = outcome
+     */
+    public MoveResult(int row, int col, int outcome) {
+        this.row = row;
+        this.col = col;
+        this.outcome = outcome;
+    }
+
+    /**
+     * returns the row the token landed in
+     * @return the row
+     * @post getRow = row
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * returns the column the token was placed in
+     * @return the column
+     * @post getColumn = col
+     */
+    public int getColumn() {
+        return col;
+    }
+
+    /**
+     * returns what the move did to the game
+     * @return CONTINUE, WIN or TIE
+     * @post getOutcome = outcome
+     */
+    public int getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * returns true if the move won the game
+     * @post isWin = (outcome = WIN)
+     */
+    public boolean isWin() {
+        return outcome == WIN;
+    }
+
+    /**
+     * returns true if the move filled the board without winning
+     * @post isTie = (outcome = TIE)
+     */
+    public boolean isTie() {
+        return outcome == TIE;
+    }
+
+    /**
+     * returns true if the move ended the game
+     * @post isGameOver = (outcome != CONTINUE)
+     */
+    public boolean isGameOver() {
+        return outcome != CONTINUE;
+    }
+}
@@ -0,0 +1,56 @@
+package cpsc2150.extendedConnectX.models;
+// Andy Bodell
+/**
+ * This class holds the tokens that players use in the game, in turn order, so that boards which
+ * store players by number instead of by character can translate between the two
+ *
+ * @invariant [TOKENS has MAXPLAYERS distinct tokens and none of them are a blank space]
+ */
+public final class PlayerTokens {
+    private static final char[] TOKENS = {'X', 'O', 'S', 'D', 'A', 'W', 'K', 'C', 'M', 'T'};
+
+    private PlayerTokens() {
+    }
+
+    /**
+     * returns the token used by the player with number i
+     * @param i the player number
+     * @return the token of player i
+     * @pre 0 <= i < MAXPLAYERS
+     * @post tokenAt = TOKENS[i]
+     */
+    public static char tokenAt(int i) {
+        return TOKENS[i];
+    }
+
+    /**
+     * returns the player number that uses token p
+     * @param p the token to look up
+     * @return the player number that uses p
+     * @pre [p is one of the player tokens]
+     * @post TOKENS[indexOf(p)] = p
+     * @throws IllegalArgumentException if p is not a player token
+     */
+    public static int indexOf(char p) {
+        int i = find(p);
+        if (i < 0) {
+            throw new IllegalArgumentException("Not a player token: " + p);
+        }
+        return i;
+    }
+
+    /**
+     * returns the player number that uses token p, for callers that may be asked about other characters
+     * @param p the character to look up
+     * @return the player number that uses p, or -1 if p is not a player token
+     * @post find = -1 OR TOKENS[find(p)] = p
+     */
+    public static int find(char p) {
+        for (int i = 0; i < TOKENS.length; i++) {
+            if (TOKENS[i] == p) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
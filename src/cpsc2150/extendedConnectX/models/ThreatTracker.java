@@ -0,0 +1,237 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.Arrays;
+
+// Andy Bodell
+/**
+ * This class keeps count of every window of getNumToWin() positions on a gameboard, horizontal, vertical and
+ * both diagonals, so that whether a move won, how many open windows a player has and a heuristic score are
+ * known without looking at the board. Placing or removing a token only updates the windows through that
+ * position, at most 4 * numToWin of them.
+ *
+ * A window is open for a player when that player is the only one with tokens in it. The score of a player is
+ * the sum of the squares of their counts over their open windows.
+ *
+ * @invariant [for every window w, counts[w * numPlayers + p] = the number of p's tokens in w]
+ * @invariant [owner[w] = EMPTY if w has no tokens, the player if only one player has tokens in w, MIXED otherwise]
+ * @invariant [open[p][k] = the number of windows open for p with k tokens] AND
+ *            [squares[p] = the sum of k * k over p's open windows] AND
+ *            [completed = the number of windows with numToWin tokens of one player]
+ *
+ * @correspondence self = [the tokens on the gameboard, grouped into windows]
+ */
+public class ThreatTracker {
+    private static final byte EMPTY = -1;
+    private static final byte MIXED = -2;
+    // right, up, up and right, down and right
+    private static final int[] D_ROW = {0, 1, 1, -1};
+    private static final int[] D_COL = {1, 0, 1, 1};
+
+    private final int cols;
+    private final int numToWin;
+    private final int numPlayers;
+    private final int[][] cellWindows;
+    private final byte[] counts;
+    private final byte[] filled;
+    private final byte[] owner;
+    private final int[][] open;
+    private final int[] squares;
+    private int totalSquares;
+    private int completed;
+
+    /**
+     * Constructor that will count the windows of the tokens already on board
+     * @param board the gameboard to track
+     * @param numPlayers the number of players in the game
+     * @pre MINPLAYERS <= numPlayers <= MAXPLAYERS AND [board only holds tokens of the first numPlayers players]
+     * @post [self counts the tokens on board] AND board = #board
+     */
+    public ThreatTracker(IGameBoard board, int numPlayers) {
+        int rows = board.getNumRows();
+        this.cols = board.getNumColumns();
+        this.numToWin = board.getNumToWin();
+        this.numPlayers = numPlayers;
+
+        // count the windows through every cell first so each cell's list can be made the right size
+        int[] perCell = new int[rows * cols];
+        int numWindows = 0;
+        for (int d = 0; d < D_ROW.length; d++) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (fits(r, c, d, rows)) {
+                        for (int k = 0; k < numToWin; k++) {
+                            perCell[(r + k * D_ROW[d]) * cols + c + k * D_COL[d]]++;
+                        }
+                        numWindows++;
+                    }
+                }
+            }
+        }
+        cellWindows = new int[rows * cols][];
+        for (int i = 0; i < perCell.length; i++) {
+            cellWindows[i] = new int[perCell[i]];
+            perCell[i] = 0;
+        }
+        int w = 0;
+        for (int d = 0; d < D_ROW.length; d++) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (fits(r, c, d, rows)) {
+                        for (int k = 0; k < numToWin; k++) {
+                            int cell = (r + k * D_ROW[d]) * cols + c + k * D_COL[d];
+                            cellWindows[cell][perCell[cell]] = w;
+                            perCell[cell]++;
+                        }
+                        w++;
+                    }
+                }
+            }
+        }
+
+        counts = new byte[numWindows * numPlayers];
+        filled = new byte[numWindows];
+        owner = new byte[numWindows];
+        Arrays.fill(owner, EMPTY);
+        open = new int[numPlayers][numToWin + 1];
+        squares = new int[numPlayers];
+
+        for (int c = 0; c < cols; c++) {
+            for (int r = 0; r < board.getColumnHeight(c); r++) {
+                place(PlayerTokens.indexOf(board.whatsAtPos(r, c)), r, c);
+            }
+        }
+    }
+
+    /**
+     * counts a token that was placed on the gameboard
+     * @param player the number of the player whose token it is
+     * @param row the row of the token
+     * @param col the column of the token
+     * @return true iff the token completed a window of numToWin tokens of player
+     * @pre 0 <= player < numPlayers AND [there was no token at (row, col)]
+     * @post [self counts the token at (row, col)]
+     */
+    public boolean place(int player, int row, int col) {
+        boolean won = false;
+        int sq;
+        for (int w : cellWindows[row * cols + col]) {
+            int before = filled[w];
+            byte o = owner[w];
+            if (o == player) {
+                sq = (before + 1) * (before + 1) - before * before;
+                open[player][before]--;
+                open[player][before + 1]++;
+                squares[player] += sq;
+                totalSquares += sq;
+                if (before + 1 == numToWin) {
+                    completed++;
+                    won = true;
+                }
+            } else if (o == EMPTY) {
+                owner[w] = (byte) player;
+                open[player][1]++;
+                squares[player]++;
+                totalSquares++;
+            } else if (o != MIXED) {
+                // the window was open for someone else and now nobody can win it
+                sq = before * before;
+                owner[w] = MIXED;
+                open[o][before]--;
+                squares[o] -= sq;
+                totalSquares -= sq;
+            }
+            counts[w * numPlayers + player]++;
+            filled[w]++;
+        }
+        return won;
+    }
+
+    /**
+     * stops counting a token that was removed from the gameboard
+     * @param player the number of the player whose token it was
+     * @param row the row of the token
+     * @param col the column of the token
+     * @pre [self counts a token of player at (row, col)]
+     * @post [self no longer counts the token at (row, col)]
+     */
+    public void remove(int player, int row, int col) {
+        int sq;
+        for (int w : cellWindows[row * cols + col]) {
+            counts[w * numPlayers + player]--;
+            filled[w]--;
+            int after = filled[w];
+            byte o = owner[w];
+            if (o == player) {
+                if (after + 1 == numToWin) {
+                    completed--;
+                }
+                sq = (after + 1) * (after + 1) - after * after;
+                open[player][after + 1]--;
+                squares[player] -= sq;
+                totalSquares -= sq;
+                if (after == 0) {
+                    owner[w] = EMPTY;
+                } else {
+                    open[player][after]++;
+                }
+            } else if (o == MIXED) {
+                // the window opens again if only one player is left in it
+                int only = EMPTY;
+                for (int p = 0; p < numPlayers; p++) {
+                    if (counts[w * numPlayers + p] > 0) {
+                        only = only == EMPTY ? p : MIXED;
+                    }
+                }
+                if (only >= 0) {
+                    sq = after * after;
+                    owner[w] = (byte) only;
+                    open[only][after]++;
+                    squares[only] += sq;
+                    totalSquares += sq;
+                }
+            }
+        }
+    }
+
+    /**
+     * returns the number of windows that only player has tokens in and that hold exactly k of them
+     * @param player the number of the player
+     * @param k the number of tokens
+     * @return the number of open windows of player with k tokens
+     * @pre 0 <= player < numPlayers AND 1 <= k <= numToWin
+     * @post self = #self
+     */
+    public int getOpenWindows(int player, int k) {
+        return open[player][k];
+    }
+
+    /**
+     * returns the heuristic score of the gameboard for player: their squared counts over their open windows
+     * minus everyone else's
+     * @param player the number of the player
+     * @return the score for player
+     * @pre 0 <= player < numPlayers
+     * @post score = 2 * squares[player] - totalSquares AND self = #self
+     */
+    public int score(int player) {
+        return 2 * squares[player] - totalSquares;
+    }
+
+    /**
+     * returns true if some window holds numToWin tokens of one player
+     * @return true iff a player has won
+     * @post hasWin = (completed > 0) AND self = #self
+     */
+    public boolean hasWin() {
+        return completed > 0;
+    }
+
+    /**
+     * returns true if the window of numToWin positions from (r, c) in direction d is on the board
+     */
+    private boolean fits(int r, int c, int d, int rows) {
+        int endRow = r + (numToWin - 1) * D_ROW[d];
+        int endCol = c + (numToWin - 1) * D_COL[d];
+        return endRow >= 0 && endRow < rows && endCol < cols;
+    }
+}
@@ -0,0 +1,112 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Andy Bodell
+/**
+ * This class holds a random 64-bit key for every (player, position) pair on a gameboard. XORing together
+ * the keys of every token on the board gives a hash of the position that can be updated with one XOR
+ * whenever a token is placed or removed.
+ *
+ * The keys are generated from a seed made from the rows, columns and players, so every table for the same
+ * configuration has the same keys, even in a different process. Tables are shared through forBoard since
+ * a 100 x 100 table for 10 players takes 800KB.
+ *
+ * @invariant keys.length = players * rows * cols AND [keys never change after construction]
+ *
+ * @correspondence self = keys, [key of player p at (r, c)] = keys[(p * rows + r) * cols + c]
+ */
+public final class ZobristTable {
+    private static final Map<Long, ZobristTable> TABLES = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final int players;
+    private final long[] keys;
+
+    /**
+     * Constructor that will generate the keys for a configuration
+     * @param rows the number of rows on the gameboard
+     * @param cols the number of columns on the gameboard
+     * @param players the number of players
+     * @pre MINROWS <= rows <= MAXROWS AND MINCOLUMNS <= cols <= MAXCOLUMNS AND 1 <= players <= MAXPLAYERS
+     * @post [keys holds players * rows * cols keys generated from the seed for (rows, cols, players)]
+     */
+    private ZobristTable(int rows, int cols, int players) {
+        this.rows = rows;
+        this.cols = cols;
+        this.players = players;
+        this.keys = new long[players * rows * cols];
+        SplittableRandom random = new SplittableRandom(seedOf(rows, cols, players));
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * returns the shared table for a configuration, creating it the first time it is asked for
+     * @param rows the number of rows on the gameboard
+     * @param cols the number of columns on the gameboard
+     * @param players the number of players
+     * @return the table for (rows, cols, players)
+     * @pre MINROWS <= rows <= MAXROWS AND MINCOLUMNS <= cols <= MAXCOLUMNS AND 1 <= players <= MAXPLAYERS
+     * @post [every call with the same arguments returns the same table]
+     */
+    public static ZobristTable forBoard(int rows, int cols, int players) {
+        return TABLES.computeIfAbsent(seedOf(rows, cols, players), s -> new ZobristTable(rows, cols, players));
+    }
+
+    /**
+     * returns the key of player at (row, col)
+     * @param player the player number
+     * @param row the row of the position
+     * @param col the column of the position
+     * @return the key for player at (row, col)
+     * @pre 0 <= player < players AND 0 <= row < rows AND 0 <= col < cols
+     * @post self = #self
+     */
+    public long keyOf(int player, int row, int col) {
+        return keys[(player * rows + row) * cols + col];
+    }
+
+    /**
+     * returns the hash of every token on board, computed from scratch
+     * @param board the gameboard to hash
+     * @return the XOR of the keys of every token on board
+     * @pre board.getNumRows() = rows AND board.getNumColumns() = cols AND [every token on board is one of
+     * the first players tokens in PlayerTokens]
+     * @post self = #self
+     */
+    public long hashOf(IGameBoard board) {
+        long hash = 0;
+        for (int c = 0; c < cols; c++) {
+            for (int r = 0; r < board.getColumnHeight(c); r++) {
+                hash ^= keyOf(PlayerTokens.indexOf(board.whatsAtPos(r, c)), r, c);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * returns the number of players the table has keys for
+     * @return the number of players
+     * @post getNumPlayers = players
+     */
+    public int getNumPlayers() {
+        return players;
+    }
+
+    /**
+     * packs the configuration into the seed its keys are generated from
+     * @param rows the number of rows on the gameboard
+     * @param cols the number of columns on the gameboard
+     * @param players the number of players
+     * @return the seed for (rows, cols, players)
+     * @post [different configurations give different seeds]
+     */
+    private static long seedOf(int rows, int cols, int players) {
+        return ((long) rows << 32) | ((long) cols << 16) | players;
+    }
+}
@@ -0,0 +1,147 @@
+package cpsc2150.extendedConnectX.network;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * This class is a thin client of a {@link GameServer}. It only sends what the player wants to do and passes on
+ * what the server answers to an {@link IGameListener}; the server keeps the board and decides what every move
+ * did. Messages from the server are read by a thread of the client's own.
+ *
+ * @invariant [out holds no unsent bytes between calls]
+ */
+public class GameClient implements Closeable {
+    private static final int READ_BYTES = 256;
+
+    private final SocketChannel channel;
+    private final IGameListener listener;
+    private final ByteBuffer out = ByteBuffer.allocate(Protocol.MAX_SIZE);
+
+    /**
+     * Constructor that will connect to a server and start reading its messages
+     * @param host the name or address of the server
+     * @param port the port the server listens on
+     * @param listener what to tell about the game
+     * @throws IOException if the server can't be reached
+     * @post [the client is connected and not in a game]
+     */
+    public GameClient(String host, int port, IGameListener listener) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.listener = listener;
+        Thread reader = new Thread(this::readMessages, "connectx-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * asks for a seat in the next game with a configuration
+     * @param rows the number of rows of the board
+     * @param cols the number of columns of the board
+     * @param numToWin how many tokens in a row win
+     * @param players the number of players
+     * @throws IOException if the message can't be sent
+     * @post [the listener is told joined and started once the server has a game for the client, or refused if
+     *       the configuration is invalid or the client is in a game or already waiting for one]
+     */
+    public synchronized void join(int rows, int cols, int numToWin, int players) throws IOException {
+        out.put(Protocol.JOIN).put((byte) rows).put((byte) cols).put((byte) numToWin).put((byte) players);
+        send();
+    }
+
+    /**
+     * plays in a column
+     * @param col the column to play in
+     * @throws IOException if the message can't be sent
+     * @post [the listener is told moved if it was the client's turn and col has room, refused otherwise]
+     */
+    public synchronized void move(int col) throws IOException {
+        out.put(Protocol.MOVE).put((byte) col);
+        send();
+    }
+
+    /**
+     * gives up the game the client is in or waiting for
+     * @throws IOException if the message can't be sent
+     * @post [the client is not in a game, and every other seat is told abandoned if it had started]
+     */
+    public synchronized void leave() throws IOException {
+        out.put(Protocol.LEAVE);
+        send();
+    }
+
+    /**
+     * disconnects from the server, which counts as leaving
+     * @throws IOException if the connection can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * reads messages until the connection closes, passing each one on to the listener
+     */
+    private void readMessages() {
+        ByteBuffer in = ByteBuffer.allocate(READ_BYTES);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.hasRemaining()) {
+                    int size = Protocol.sizeOf(in.get(in.position()));
+                    if (size == 0) {
+                        throw new IOException("Unknown message from the server");
+                    }
+                    if (in.remaining() < size) {
+                        break;
+                    }
+                    dispatch(in);
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            // the connection is closed either way
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already as closed as it can be
+            }
+            listener.disconnected();
+        }
+    }
+
+    /**
+     * reads one whole message and tells the listener about it
+     * @pre [in holds a whole message]
+     */
+    private void dispatch(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        if (type == Protocol.JOINED) {
+            int game = in.getInt();
+            listener.joined(game, in.get() & 0xFF);
+        } else if (type == Protocol.START) {
+            listener.started();
+        } else if (type == Protocol.MOVED) {
+            listener.moved(in.get() & 0xFF, in.get() & 0xFF, in.get() & 0xFF, in.get() & 0xFF);
+        } else if (type == Protocol.ERROR) {
+            listener.refused(in.get() & 0xFF);
+        } else if (type == Protocol.ABANDONED) {
+            listener.abandoned(in.get() & 0xFF);
+        } else {
+            throw new IOException("Message " + type + " is only sent to the server");
+        }
+    }
+}
@@ -0,0 +1,639 @@
+package cpsc2150.extendedConnectX.network;
+
+import cpsc2150.extendedConnectX.ai.AlphaBetaPlayer;
+import cpsc2150.extendedConnectX.ai.IComputerPlayer;
+import cpsc2150.extendedConnectX.models.BoardFactory;
+import cpsc2150.extendedConnectX.models.BoardPool;
+import cpsc2150.extendedConnectX.models.GameEngine;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+import cpsc2150.extendedConnectX.models.MoveResult;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class hosts connectX games for clients connected over TCP, speaking the messages of {@link Protocol}.
+ * Clients that ask for the same configuration are grouped into games by a {@link Matchmaker}, in the order
+ * they ask, and a client that has waited fillMillis without enough others gets a game with computer players
+ * in the empty seats. The server checks every move and sends the result to every seat, so clients only draw
+ * what they are told.
+ * <p>
+ * Every connection and game is run by one thread in a non-blocking selector loop, so games need no locks and
+ * an idle connection costs a few hundred bytes instead of a thread. Replies are gathered per connection and
+ * written once per pass of the loop, and a client that stops reading is dropped once MAX_PENDING bytes are
+ * waiting for it. Gameboards come from a {@link BoardPool} and go back to it when a game ends. Computer
+ * players search on a pool of COMPUTER_THREADS threads, each on its own copy of the game, and hand their
+ * moves back to the loop through a lock-free queue, so a search never holds up the other games.
+ * <p>
+ * Run it with
+ * <pre>
+ *   java cpsc2150.extendedConnectX.network.GameServer [port [fillMillis]]
+ * </pre>
+ *
+ * @invariant [every connection in a game is in one of its seats] AND [a seat of a game being played is null iff a
+ *            computer plays it] AND [a connection has a ticket iff it is waiting in the matchmaker]
+ */
+public class GameServer implements Runnable, Closeable {
+    private static final int READ_BYTES = 64;
+    private static final int INITIAL_WRITE_BYTES = 32;
+    private static final int MAX_PENDING = 1 << 16;
+    private static final int BACKLOG = 1024;
+    private static final int POOLED_BOARDS = 1024;
+    private static final int STATS_MILLIS = 10000;
+    // how long the loop sleeps at most, so waits that run past fillMillis are noticed
+    private static final int TICK_MILLIS = 100;
+    private static final long FILL_MILLIS = 10000;
+    private static final long COMPUTER_MILLIS = 200;
+    private static final int COMPUTER_THREADS = Runtime.getRuntime().availableProcessors();
+    // a search table is a few megabytes, so each thread only keeps players for the configurations it used last
+    private static final int COMPUTERS_PER_THREAD = 2;
+
+    private static final ThreadLocal<Map<Integer, IComputerPlayer>> COMPUTERS = ThreadLocal.withInitial(
+            () -> new LinkedHashMap<Integer, IComputerPlayer>(COMPUTERS_PER_THREAD * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, IComputerPlayer> eldest) {
+                    return size() > COMPUTERS_PER_THREAD;
+                }
+            });
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final int port;
+    private final Matchmaker<Connection> matchmaker;
+    private final List<Matchmaker.Room<Connection>> rooms = new ArrayList<>();
+    private final BoardPool boards = new BoardPool(POOLED_BOARDS);
+    // connections with replies to write at the end of this pass of the loop
+    private final List<Connection> dirty = new ArrayList<>();
+    private final ExecutorService computers = Executors.newFixedThreadPool(COMPUTER_THREADS, r -> {
+        Thread t = new Thread(r, "connectx-server-computer");
+        t.setDaemon(true);
+        return t;
+    });
+    // moves the computers have picked, for the loop to play
+    private final Queue<ComputerMove> computerMoves = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+    private int nextGameId;
+
+    // only written by the loop thread, read by anyone for statistics
+    private volatile int connections;
+    private volatile int activeGames;
+    private volatile long gamesFinished;
+    private volatile long movesPlayed;
+
+    /**
+     * Constructor that will start listening for clients, who wait FILL_MILLIS for others before playing computers
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port can't be listened on
+     * @post [clients can connect to getPort(), and are served once run is called]
+     */
+    public GameServer(int port) throws IOException {
+        this(port, FILL_MILLIS);
+    }
+
+    /**
+     * Constructor that will start listening for clients
+     * @param port the port to listen on, or 0 for any free port
+     * @param fillMillis how long a client waits for others before the rest of its game is given to computers
+     * @throws IOException if the port can't be listened on
+     * @pre fillMillis > 0
+     * @post [clients can connect to getPort(), and are served once run is called]
+     */
+    public GameServer(int port, long fillMillis) throws IOException {
+        this.matchmaker = new Matchmaker<>(fillMillis);
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), BACKLOG);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * returns the port the server is listening on
+     * @post getPort = port
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * returns the number of clients connected
+     * @post getConnections = connections
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * returns the number of games being played
+     * @post getActiveGames = activeGames
+     */
+    public int getActiveGames() {
+        return activeGames;
+    }
+
+    /**
+     * returns the number of games that have ended, by a win, a tie or a player leaving
+     * @post getGamesFinished = gamesFinished
+     */
+    public long getGamesFinished() {
+        return gamesFinished;
+    }
+
+    /**
+     * returns the number of moves played in every game so far
+     * @post getMovesPlayed = movesPlayed
+     */
+    public long getMovesPlayed() {
+        return movesPlayed;
+    }
+
+    /**
+     * returns the number of clients waiting for a game
+     * @post getWaiting = [the number of clients the matchmaker has not put in a game yet]
+     */
+    public int getWaiting() {
+        return matchmaker.getWaiting();
+    }
+
+    /**
+     * returns how long clients waited from asking to join until they had a game, in nanoseconds
+     * @post getWaitTimes = [the matchmaker's wait times]
+     */
+    public LatencyHistogram getWaitTimes() {
+        return matchmaker.getWaitTimes();
+    }
+
+    /**
+     * serves clients until close is called, then closes every connection
+     * @throws UncheckedIOException if the selector fails
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(TICK_MILLIS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection c = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        read(c);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(c);
+                    }
+                }
+                playComputerMoves();
+                // every game the matchmaker can make this pass is started at once, and its replies sent below
+                matchmaker.match(System.nanoTime(), rooms);
+                for (Matchmaker.Room<Connection> room : rooms) {
+                    start(room);
+                }
+                rooms.clear();
+                // flushing can drop a connection, which can add more connections to flush
+                for (int i = 0; i < dirty.size(); i++) {
+                    flush(dirty.get(i));
+                }
+                dirty.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+            computers.shutdownNow();
+        }
+    }
+
+    /**
+     * stops the loop started by run, which then closes every connection
+     * @post [run returns soon]
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * <p>
+     * This starts a server and prints its statistics every ten seconds.
+     * </p>
+     *
+     * @param args
+     *            The port to listen on, {@link Protocol#DEFAULT_PORT} if not given, then how many
+     *            milliseconds a client waits for others before playing computers.
+     * @throws IOException if the port can't be listened on
+     */
+    public static void main(String[] args) throws IOException {
+        GameServer server = new GameServer(args.length > 0 ? Integer.parseInt(args[0]) : Protocol.DEFAULT_PORT,
+                args.length > 1 ? Long.parseLong(args[1]) : FILL_MILLIS);
+        Thread loop = new Thread(server, "connectx-server");
+        loop.start();
+        System.out.println("Serving connectX on port " + server.getPort());
+        while (loop.isAlive()) {
+            try {
+                loop.join(STATS_MILLIS);
+            } catch (InterruptedException e) {
+                server.close();
+                return;
+            }
+            LatencyHistogram waits = server.getWaitTimes();
+            System.out.printf("%d connections, %d waiting, %d games being played, %d finished, %d moves, "
+                    + "wait p50 %.1f ms, p90 %.1f ms, p99 %.1f ms%n", server.getConnections(), server.getWaiting(),
+                    server.getActiveGames(), server.getGamesFinished(), server.getMovesPlayed(),
+                    waits.getPercentile(0.5) / 1e6, waits.getPercentile(0.9) / 1e6, waits.getPercentile(0.99) / 1e6);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            // every message is a few bytes that the other side is waiting for
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection c = new Connection(channel);
+            c.key = channel.register(selector, SelectionKey.OP_READ, c);
+            connections++;
+        }
+    }
+
+    /**
+     * reads what c has sent and handles every whole message in it
+     */
+    private void read(Connection c) {
+        int n;
+        try {
+            n = c.channel.read(c.in);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            drop(c);
+            return;
+        }
+        ByteBuffer in = c.in.flip();
+        while (in.hasRemaining()) {
+            byte type = in.get(in.position());
+            int size = Protocol.sizeOf(type);
+            if (size == 0 || type >= Protocol.JOINED) {
+                // not a message clients send, so the rest of the stream can't be trusted
+                drop(c);
+                return;
+            }
+            if (in.remaining() < size) {
+                break;
+            }
+            in.get();
+            if (type == Protocol.JOIN) {
+                join(c, in.get() & 0xFF, in.get() & 0xFF, in.get() & 0xFF, in.get() & 0xFF);
+            } else if (type == Protocol.MOVE) {
+                move(c, in.get() & 0xFF);
+            } else {
+                leave(c);
+            }
+        }
+        in.compact();
+    }
+
+    /**
+     * puts c in the matchmaker's queue for this configuration
+     */
+    private void join(Connection c, int rows, int cols, int numToWin, int players) {
+        if (c.game != null || c.ticket != null) {
+            error(c, Protocol.ALREADY_PLAYING);
+            return;
+        }
+        if (rows < IGameBoard.MINROWS || rows > IGameBoard.MAXROWS || cols < IGameBoard.MINCOLUMNS
+                || cols > IGameBoard.MAXCOLUMNS || numToWin < IGameBoard.MINNUMTOWIN
+                || numToWin > IGameBoard.MAXNUMTOWIN || numToWin > rows || numToWin > cols
+                || players < IGameBoard.MINPLAYERS || players > IGameBoard.MAXPLAYERS) {
+            error(c, Protocol.BAD_CONFIG);
+            return;
+        }
+        c.ticket = matchmaker.enqueue(c, rows, cols, numToWin, players, System.nanoTime());
+    }
+
+    /**
+     * starts a game for a room the matchmaker made, telling each client its seat
+     */
+    private void start(Matchmaker.Room<Connection> room) {
+        int players = room.getPlayers();
+        Game game = new Game(nextGameId++, room.getRows() << 24 | room.getColumns() << 16
+                | room.getNumToWin() << 8 | players, players);
+        game.board = boards.acquire(BoardFactory.BIT, room.getRows(), room.getColumns(), room.getNumToWin());
+        game.engine = new GameEngine(game.board, players);
+        activeGames++;
+        for (int seat = 0; seat < players; seat++) {
+            Connection c = room.getPlayer(seat);
+            if (c == null) {
+                continue;
+            }
+            game.seats[seat] = c;
+            c.ticket = null;
+            c.game = game;
+            c.seat = seat;
+            if (reserve(c, 7)) {
+                c.out.put(Protocol.JOINED).putInt(game.id).put((byte) seat).put(Protocol.START);
+            }
+        }
+        if (game.seats[0] == null) {
+            askComputer(game);
+        }
+    }
+
+    /**
+     * plays c's move if it is c's turn and the column has room
+     */
+    private void move(Connection c, int col) {
+        Game game = c.game;
+        if (game == null) {
+            error(c, Protocol.NOT_PLAYING);
+        } else if (game.engine.getCurrentPlayer() != c.seat) {
+            error(c, Protocol.NOT_YOUR_TURN);
+        } else if (col >= game.board.getNumColumns() || !game.board.checkIfFree(col)) {
+            error(c, Protocol.ILLEGAL_MOVE);
+        } else {
+            play(game, col);
+        }
+    }
+
+    /**
+     * plays col for the seat whose turn it is, tells every seat where the token went, and asks the computer
+     * for its move if a computer is next
+     */
+    private void play(Game game, int col) {
+        int seat = game.engine.getCurrentPlayer();
+        MoveResult result = game.engine.makeMove(col);
+        movesPlayed++;
+        for (Connection s : game.seats) {
+            if (s != null && reserve(s, 5)) {
+                s.out.put(Protocol.MOVED).put((byte) seat).put((byte) result.getRow()).put((byte) col)
+                        .put((byte) result.getOutcome());
+            }
+        }
+        if (result.isGameOver()) {
+            finish(game);
+        } else if (game.seats[game.engine.getCurrentPlayer()] == null) {
+            askComputer(game);
+        }
+    }
+
+    /**
+     * has a computer pick the next move of a game on another thread. It searches the game's own copy, which
+     * is only handed the moves made since its last turn, so the loop can go on with this game, and end it,
+     * while the computer thinks. A search that fails is reported as column -1
+     */
+    private void askComputer(Game game) {
+        int config = game.config;
+        int numMoves = game.engine.getNumMoves();
+        int[] moves = new int[numMoves - game.copiedMoves];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = game.engine.getMove(game.copiedMoves + i);
+        }
+        game.copiedMoves = numMoves;
+        computers.execute(() -> {
+            int col;
+            try {
+                int rows = config >>> 24, cols = config >>> 16 & 0xFF, numToWin = config >>> 8 & 0xFF;
+                if (game.copy == null) {
+                    // not from boards, which only the loop may use, and a search can outlast its game
+                    game.copy = new GameEngine(BoardFactory.create(BoardFactory.BIT, rows, cols, numToWin),
+                            config & 0xFF);
+                    // kept up to date for the whole game instead of being built again by every search
+                    game.copy.trackThreats();
+                }
+                for (int move : moves) {
+                    game.copy.applyMove(move);
+                }
+                IComputerPlayer computer = COMPUTERS.get().computeIfAbsent(config,
+                        k -> new AlphaBetaPlayer(rows, cols, COMPUTER_MILLIS));
+                col = computer.chooseMove(game.copy);
+            } catch (RuntimeException e) {
+                col = -1;
+            }
+            computerMoves.add(new ComputerMove(game, numMoves, col));
+            selector.wakeup();
+        });
+    }
+
+    /**
+     * plays the moves the computers have picked, unless their game has ended or moved on since; a computer
+     * that couldn't pick a legal move leaves its game like a client would
+     */
+    private void playComputerMoves() {
+        ComputerMove m;
+        while ((m = computerMoves.poll()) != null) {
+            GameEngine engine = m.game.engine;
+            if (engine == null || engine.getNumMoves() != m.numMoves) {
+                continue;
+            }
+            if (m.col >= 0 && m.col < m.game.board.getNumColumns() && engine.isLegalMove(m.col)) {
+                play(m.game, m.col);
+            } else {
+                abandon(m.game, engine.getCurrentPlayer());
+            }
+        }
+    }
+
+    /**
+     * takes c out of the queue or out of its game; a game is over for everyone once a client leaves it, and
+     * they are told who left
+     */
+    private void leave(Connection c) {
+        if (c.ticket != null) {
+            matchmaker.cancel(c.ticket);
+            c.ticket = null;
+            return;
+        }
+        Game game = c.game;
+        if (game == null) {
+            return;
+        }
+        c.game = null;
+        game.seats[c.seat] = null;
+        abandon(game, c.seat);
+    }
+
+    /**
+     * ends a game because seat left it, telling every client still in it
+     */
+    private void abandon(Game game, int seat) {
+        for (Connection s : game.seats) {
+            if (s != null && reserve(s, 2)) {
+                s.out.put(Protocol.ABANDONED).put((byte) seat);
+            }
+        }
+        finish(game);
+    }
+
+    /**
+     * ends a game, freeing its seats and its board
+     */
+    private void finish(Game game) {
+        for (Connection s : game.seats) {
+            if (s != null && s.game == game) {
+                s.game = null;
+            }
+        }
+        boards.release(game.board);
+        game.board = null;
+        game.engine = null;
+        activeGames--;
+        gamesFinished++;
+    }
+
+    private void error(Connection c, int code) {
+        if (reserve(c, 2)) {
+            c.out.put(Protocol.ERROR).put((byte) code);
+        }
+    }
+
+    /**
+     * makes room for bytes more bytes to send to c and marks it to be flushed
+     * @return false if c has fallen too far behind, in which case it is dropped on the next flush
+     */
+    private boolean reserve(Connection c, int bytes) {
+        if (c.overflowed) {
+            return false;
+        }
+        if (c.out.remaining() < bytes) {
+            if (c.out.capacity() * 2 > MAX_PENDING) {
+                c.overflowed = true;
+                return false;
+            }
+            ByteBuffer bigger = ByteBuffer.allocate(c.out.capacity() * 2);
+            c.out = bigger.put(c.out.flip());
+        }
+        if (!c.dirty) {
+            c.dirty = true;
+            dirty.add(c);
+        }
+        return true;
+    }
+
+    /**
+     * writes as much of what is waiting for c as the socket takes, and waits to write the rest
+     */
+    private void flush(Connection c) {
+        c.dirty = false;
+        if (!c.key.isValid()) {
+            return;
+        }
+        if (c.overflowed) {
+            drop(c);
+            return;
+        }
+        c.out.flip();
+        try {
+            c.channel.write(c.out);
+        } catch (IOException e) {
+            c.out.clear();
+            drop(c);
+            return;
+        }
+        c.out.compact();
+        c.key.interestOps(c.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void drop(Connection c) {
+        if (!c.key.isValid()) {
+            return;
+        }
+        leave(c);
+        c.key.cancel();
+        closeQuietly(c.channel);
+        connections--;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nothing more can be done with it
+        }
+    }
+
+    /**
+     * One client, with what it has sent that hasn't been handled yet and what is waiting to be sent to it
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(READ_BYTES);
+        ByteBuffer out = ByteBuffer.allocate(INITIAL_WRITE_BYTES);
+        SelectionKey key;
+        Matchmaker.Ticket<Connection> ticket;
+        Game game;
+        int seat;
+        boolean dirty;
+        boolean overflowed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * One game, which has a board and an engine only while it is being played
+     */
+    private static final class Game {
+        final int id;
+        final int config;
+        // null for seats a computer plays
+        final Connection[] seats;
+        IGameBoard board;
+        GameEngine engine;
+        // the computers' copy of the game, only used by the computer thread searching it, and how many of
+        // the game's moves have been handed to it
+        GameEngine copy;
+        int copiedMoves;
+
+        Game(int id, int config, int players) {
+            this.id = id;
+            this.config = config;
+            this.seats = new Connection[players];
+        }
+    }
+
+    /**
+     * The column a computer picked for a game, when the game had numMoves moves
+     */
+    private static final class ComputerMove {
+        final Game game;
+        final int numMoves;
+        final int col;
+
+        ComputerMove(Game game, int numMoves, int col) {
+            this.game = game;
+            this.numMoves = numMoves;
+            this.col = col;
+        }
+    }
+}
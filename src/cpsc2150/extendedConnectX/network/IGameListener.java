@@ -0,0 +1,46 @@
+package cpsc2150.extendedConnectX.network;
+
+/**
+ * Interface for whatever a {@link GameClient} tells about the game it is in. Every method is called on the
+ * client's reader thread, in the order the server sent the messages.
+ */
+public interface IGameListener {
+
+    /**
+     * This method is called when the client has been given a seat in a game, just before it starts
+     * @param game the number of the game on the server
+     * @param seat the client's seat, which is also its player number
+     */
+    public void joined(int game, int seat);
+
+    /**
+     * This method is called when every seat is taken, by clients or computers, and seat 0 can move
+     */
+    public void started();
+
+    /**
+     * This method is called for every move made in the game, the client's own included
+     * @param seat the seat that moved
+     * @param row the row the token landed in
+     * @param col the column the token was placed in
+     * @param outcome what the move did to the game, one of the MoveResult outcomes
+     */
+    public void moved(int seat, int row, int col, int outcome);
+
+    /**
+     * This method is called when the server refuses a message from the client
+     * @param code why, one of the Protocol error codes
+     */
+    public void refused(int code);
+
+    /**
+     * This method is called when another seat leaves, which ends the game
+     * @param seat the seat that left
+     */
+    public void abandoned(int seat);
+
+    /**
+     * This method is called once, when the connection to the server is closed
+     */
+    public void disconnected();
+}
@@ -0,0 +1,99 @@
+package cpsc2150.extendedConnectX.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class counts durations in a fixed number of buckets so percentiles can be read at any time without
+ * keeping every sample. Each power of two is split into SUB buckets of equal width, so a percentile is
+ * within about 6% of the real one whether it is microseconds or minutes. Recording is one atomic add, so
+ * any number of threads can record at once without locks.
+ *
+ * @invariant [counts[i] is the number of durations recorded in bucket i] AND max = [the longest one recorded]
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * counts a duration
+     * @param nanos the duration
+     * @pre nanos >= 0
+     * @post [the bucket of nanos has one more duration] AND getCount() = #getCount() + 1
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(nanos));
+        total.incrementAndGet();
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * returns how many durations have been recorded
+     * @post getCount = [the number of calls to record]
+     */
+    public long getCount() {
+        return total.get();
+    }
+
+    /**
+     * returns the longest duration recorded
+     * @return the longest duration, or 0 if none have been
+     * @post getMax = max
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * returns a duration that fraction p of the recorded durations are no longer than
+     * @param p the fraction, 0.5 for the median
+     * @return the middle of the bucket the percentile falls in, or 0 if nothing has been recorded
+     * @pre 0 < p <= 1
+     * @post self = #self
+     */
+    public long getPercentile(double p) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                long low = lowestIn(i);
+                return Math.min(max.get(), low + (lowestIn(i + 1) - low) / 2);
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * returns the bucket a duration is counted in: durations below SUB have a bucket each, and every power of
+     * two above that is split into SUB buckets by the SUB_BITS bits after its top bit
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB - 1);
+        return (exponent - SUB_BITS + 1) * SUB + sub;
+    }
+
+    /**
+     * returns the shortest duration counted in bucket i
+     */
+    private static long lowestIn(int i) {
+        if (i < SUB) {
+            return i;
+        }
+        int exponent = i / SUB + SUB_BITS - 1;
+        return (long) (SUB + i % SUB) << (exponent - SUB_BITS);
+    }
+}
@@ -0,0 +1,218 @@
+package cpsc2150.extendedConnectX.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class groups players who ask for the same configuration into rooms. Each configuration has its own
+ * queue, and players are seated in the order they asked. A player who has waited fillMillis without enough
+ * others asking for the same configuration gets a room anyway, with the empty seats left to computer players.
+ * <p>
+ * Any thread can enqueue and cancel without locks: a ticket goes on a lock-free queue, and a ticket is taken
+ * by whichever of cancel and match sets its flag first. Rooms are made in batches by match, which only one
+ * thread may call at a time and which makes every room it can in one pass over the queues. How long players
+ * waited for a room is kept in a {@link LatencyHistogram}.
+ *
+ * @param <T> what a player is known by
+ * @invariant fillNanos > 0 AND waiting = [the number of tickets neither matched nor cancelled]
+ */
+public class Matchmaker<T> {
+    private final long fillNanos;
+    private final ConcurrentHashMap<Integer, ConfigQueue<T>> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+    /**
+     * Constructor that will create a matchmaker with no one waiting
+     * @param fillMillis how long a player waits for others before the rest of the room is given to computers
+     * @pre fillMillis > 0
+     * @post fillNanos = fillMillis * 1000000 AND getWaiting() = 0
+     */
+    public Matchmaker(long fillMillis) {
+        this.fillNanos = fillMillis * 1000000L;
+    }
+
+    /**
+     * puts a player in the queue for a configuration
+     * @param player the player
+     * @param rows the number of rows on the gameboard
+     * @param cols the number of columns on the gameboard
+     * @param numToWin the number of tokens in a row needed to win
+     * @param players the number of seats in the room
+     * @param now the System.nanoTime() the player asked at
+     * @return the player's ticket, which can be given to cancel
+     * @pre player != null AND [the configuration is a valid one for IGameBoard]
+     * @post getWaiting() = #getWaiting() + 1
+     */
+    public Ticket<T> enqueue(T player, int rows, int cols, int numToWin, int players, long now) {
+        int config = rows << 24 | cols << 16 | numToWin << 8 | players;
+        Ticket<T> ticket = new Ticket<>(player, now);
+        waiting.incrementAndGet();
+        queues.computeIfAbsent(config, ConfigQueue::new).incoming.add(ticket);
+        return ticket;
+    }
+
+    /**
+     * takes a player out of the queue, unless they have been put in a room already
+     * @param ticket the ticket enqueue returned
+     * @return true if the player was still waiting and now isn't
+     * @post cancel = [ticket had not been matched or cancelled] AND
+     *       [if cancel, getWaiting() = #getWaiting() - 1 and the player is never put in a room]
+     */
+    public boolean cancel(Ticket<T> ticket) {
+        if (!ticket.taken.compareAndSet(false, true)) {
+            return false;
+        }
+        waiting.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * makes every room it can: full rooms from players who asked for the same configuration, and a room with
+     * computers in the empty seats for anyone who has waited fillMillis
+     * @param now the System.nanoTime() to measure waits against
+     * @param rooms where to add the rooms made
+     * @return the number of rooms made
+     * @pre [no other thread is in match]
+     * @post [every room added is seated in the order its players asked] AND
+     *       [no player who has waited fillMillis is left waiting]
+     */
+    public int match(long now, List<Room<T>> rooms) {
+        int made = 0;
+        for (ConfigQueue<T> queue : queues.values()) {
+            Ticket<T> t;
+            while ((t = queue.incoming.poll()) != null) {
+                queue.pending.add(t);
+            }
+            queue.pending.removeIf(ticket -> ticket.taken.get());
+            while (!queue.pending.isEmpty()) {
+                if (queue.pending.size() < queue.players && now - queue.pending.peekFirst().enqueued < fillNanos) {
+                    break;
+                }
+                Room<T> room = new Room<>(queue.config);
+                while (room.humans.size() < queue.players && (t = queue.pending.pollFirst()) != null) {
+                    // a cancel from another thread can still win a ticket, leaving more seats to computers
+                    if (t.taken.compareAndSet(false, true)) {
+                        waiting.decrementAndGet();
+                        // another thread can enqueue after the caller read now
+                        waitTimes.record(Math.max(0, now - t.enqueued));
+                        room.humans.add(t.player);
+                    }
+                }
+                if (!room.humans.isEmpty()) {
+                    rooms.add(room);
+                    made++;
+                }
+            }
+        }
+        return made;
+    }
+
+    /**
+     * returns the number of players waiting for a room
+     * @post getWaiting = waiting
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * returns how long players waited from enqueue until they were put in a room, in nanoseconds
+     * @post getWaitTimes = waitTimes
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * One player's place in a queue
+     *
+     * @param <T> what a player is known by
+     */
+    public static final class Ticket<T> {
+        private final T player;
+        private final long enqueued;
+        // set by whichever of cancel and match gets to the ticket first
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        private Ticket(T player, long enqueued) {
+            this.player = player;
+            this.enqueued = enqueued;
+        }
+    }
+
+    /**
+     * A group of players for one game, in the order they asked; seats after the last player are for computers
+     *
+     * @param <T> what a player is known by
+     * @invariant 1 <= humans.size() <= getPlayers()
+     */
+    public static final class Room<T> {
+        private final int config;
+        private final List<T> humans = new ArrayList<>();
+
+        private Room(int config) {
+            this.config = config;
+        }
+
+        /**
+         * returns the number of rows on the gameboard
+         */
+        public int getRows() {
+            return config >>> 24;
+        }
+
+        /**
+         * returns the number of columns on the gameboard
+         */
+        public int getColumns() {
+            return config >>> 16 & 0xFF;
+        }
+
+        /**
+         * returns the number of tokens in a row needed to win
+         */
+        public int getNumToWin() {
+            return config >>> 8 & 0xFF;
+        }
+
+        /**
+         * returns the number of seats in the room, players and computers
+         */
+        public int getPlayers() {
+            return config & 0xFF;
+        }
+
+        /**
+         * returns the player in a seat
+         * @param seat the seat
+         * @return the player, or null if a computer plays the seat
+         * @pre 0 <= seat < getPlayers()
+         */
+        public T getPlayer(int seat) {
+            return seat < humans.size() ? humans.get(seat) : null;
+        }
+    }
+
+    /**
+     * The players waiting for one configuration. Any thread adds to incoming; only match moves them to
+     * pending, which keeps them in the order they asked while match takes them from the front.
+     */
+    private static final class ConfigQueue<T> {
+        final int config;
+        final int players;
+        final Queue<Ticket<T>> incoming = new ConcurrentLinkedQueue<>();
+        final ArrayDeque<Ticket<T>> pending = new ArrayDeque<>();
+
+        ConfigQueue(int config) {
+            this.config = config;
+            this.players = config & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cpsc2150.extendedConnectX.network;
+
+/**
+ * This class defines the messages {@link GameServer} and {@link GameClient} send each other over TCP. Every
+ * message is a type byte followed by a fixed number of bytes that depends only on the type, so a message
+ * never needs a length and a whole move fits in two bytes:
+ * <pre>
+ *   client to server
+ *     JOIN      rows, cols, numToWin, players    queue for a game with this configuration
+ *     MOVE      column                           play in column on this client's turn
+ *     LEAVE                                      give up the game or the wait for one
+ *   server to client
+ *     JOINED    game (int), seat                 this client has a seat in game, sent just before START
+ *     START                                      every seat is taken, by clients or computers, and seat 0
+ *                                                moves first
+ *     MOVED     seat, row, column, outcome       seat's token landed at row, column, outcome from MoveResult
+ *     ERROR     code                             the last message was refused for code
+ *     ABANDONED seat                             seat left, so the game is over
+ * </pre>
+ * Numbers are one unsigned byte unless marked int, which is four bytes big-endian.
+ */
+public final class Protocol {
+    /**
+     * the port the server listens on if none is given
+     */
+    public static final int DEFAULT_PORT = 4815;
+
+    public static final byte JOIN = 1, MOVE = 2, LEAVE = 3;
+    public static final byte JOINED = 16, START = 17, MOVED = 18, ERROR = 19, ABANDONED = 20;
+
+    /**
+     * the codes an ERROR message can have
+     */
+    public static final int BAD_CONFIG = 1, ALREADY_PLAYING = 2, NOT_PLAYING = 3, NOT_YOUR_TURN = 4,
+            ILLEGAL_MOVE = 5;
+
+    // the bytes each message takes, type included, indexed by type; 0 for types that don't exist
+    private static final int[] SIZES = new int[ABANDONED + 1];
+
+    static {
+        SIZES[JOIN] = 5;
+        SIZES[MOVE] = 2;
+        SIZES[LEAVE] = 1;
+        SIZES[JOINED] = 6;
+        SIZES[START] = 1;
+        SIZES[MOVED] = 5;
+        SIZES[ERROR] = 2;
+        SIZES[ABANDONED] = 2;
+    }
+
+    /**
+     * the most bytes any message takes
+     */
+    public static final int MAX_SIZE = 6;
+
+    private Protocol() {
+    }
+
+    /**
+     * returns how many bytes a message of a type takes, type byte included
+     * @param type the type byte
+     * @return the size of the message, or 0 if there is no such type
+     * @post sizeOf > 0 iff [type is one of the message types above]
+     */
+    public static int sizeOf(byte type) {
+        return type > 0 && type < SIZES.length ? SIZES[type] : 0;
+    }
+}
@@ -0,0 +1,116 @@
+package cpsc2150.extendedConnectX.persistence;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+
+/**
+ * This class holds one finished game as it is stored in a game record file: its configuration, the column of
+ * every move and, if they were recorded, how many milliseconds each move took. A {@link GameRecordReader}
+ * reuses one record for every game it reads so reading millions of games doesn't allocate per game.
+ *
+ * @invariant 0 <= numMoves <= moves.length AND [moveMillis = null OR numMoves <= moveMillis.length]
+ * @invariant winner = NO_WINNER OR 0 <= winner < players
+ *
+ * @correspondence self = [the game played by players on a rows x cols board with numToWin to win, where
+ * move i was in column moves[i]]
+ */
+public class GameRecord {
+    int rows;
+    int cols;
+    int numToWin;
+    int players;
+    int winner;
+    int numMoves;
+    int[] moves = new int[0];
+    int[] moveMillis;
+
+    /**
+     * returns the number of rows of the game's board
+     * @post getRows = rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * returns the number of columns of the game's board
+     * @post getColumns = cols
+     */
+    public int getColumns() {
+        return cols;
+    }
+
+    /**
+     * returns the number of tokens in a row needed to win the game
+     * @post getNumToWin = numToWin
+     */
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    /**
+     * returns the number of players in the game
+     * @post getNumPlayers = players
+     */
+    public int getNumPlayers() {
+        return players;
+    }
+
+    /**
+     * returns the number of the player who won
+     * @return the winning player number, or GameEngine.NO_WINNER for a tie or an unfinished game
+     * @post getWinner = winner
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * returns the number of moves in the game
+     * @post getNumMoves = numMoves
+     */
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    /**
+     * returns the column of move i
+     * @pre 0 <= i < numMoves
+     * @post getMove = moves[i]
+     */
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    /**
+     * returns true if the record has the time of every move
+     * @post hasTiming = (moveMillis != null)
+     */
+    public boolean hasTiming() {
+        return moveMillis != null;
+    }
+
+    /**
+     * returns how many milliseconds move i took
+     * @pre hasTiming() AND 0 <= i < numMoves
+     * @post getMoveMillis = moveMillis[i]
+     */
+    public int getMoveMillis(int i) {
+        return moveMillis[i];
+    }
+
+    /**
+     * plays the recorded moves on board
+     * @param board the gameboard to replay the game on
+     * @return the game after the last recorded move
+     * @pre [board is empty and has the record's dimensions and number to win]
+     * @post [board holds the tokens of the recorded game]
+     */
+    public GameEngine replay(IGameBoard board) {
+        GameEngine game = new GameEngine(board, players);
+        for (int i = 0; i < numMoves; i++) {
+            game.applyMove(moves[i]);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,189 @@
+package cpsc2150.extendedConnectX.persistence;
+
+import cpsc2150.extendedConnectX.models.BoardFactory;
+import cpsc2150.extendedConnectX.models.BoardPool;
+import cpsc2150.extendedConnectX.models.GameEngine;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+import cpsc2150.extendedConnectX.models.PlayerTokens;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads the games in a file written by {@link GameRecordWriter} one at a time, through a fixed
+ * size buffer, so a file of millions of games never has to fit in memory. Every call to next fills in the
+ * same {@link GameRecord}.
+ * <p>
+ * Run it on a file to replay every game and print a summary:
+ * <pre>
+ *   java cpsc2150.extendedConnectX.persistence.GameRecordReader games.cxr
+ * </pre>
+ *
+ * @invariant [the buffer holds the bytes of the file after the last record returned by next]
+ */
+public class GameRecordReader implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final GameRecord record = new GameRecord();
+    private boolean endOfFile;
+
+    /**
+     * Constructor that will open a game record file and check its header
+     * @param file the file to read
+     * @throws IOException if the file can't be read or is not a game record file
+     * @post [next returns the first game in file]
+     */
+    public GameRecordReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.endOfFile = false;
+        buffer.limit(0);
+        try {
+            if (readInt() != GameRecordWriter.MAGIC || readByte() != GameRecordWriter.VERSION) {
+                throw new IOException(file + " is not a game record file");
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * reads the next game
+     * @return the game, in the record every call returns, or null if there are no more games
+     * @throws IOException if the file can't be read or ends in the middle of a game
+     * @post [the record holds the next game in the file]
+     */
+    public GameRecord next() throws IOException {
+        if (!fill(1)) {
+            return null;
+        }
+        record.rows = readVarint();
+        record.cols = readVarint();
+        record.numToWin = readVarint();
+        record.players = readVarint();
+        int flags = readVarint();
+        record.winner = readVarint() - 1;
+        record.numMoves = readVarint();
+        if (record.moves.length < record.numMoves) {
+            record.moves = new int[record.numMoves];
+        }
+        for (int i = 0; i < record.numMoves; i++) {
+            record.moves[i] = readVarint();
+        }
+        if ((flags & GameRecordWriter.TIMED) != 0) {
+            if (record.moveMillis == null || record.moveMillis.length < record.numMoves) {
+                record.moveMillis = new int[Math.max(record.numMoves, record.moves.length)];
+            }
+            for (int i = 0; i < record.numMoves; i++) {
+                record.moveMillis[i] = readVarint();
+            }
+        } else {
+            record.moveMillis = null;
+        }
+        return record;
+    }
+
+    /**
+     * closes the file
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * <p>
+     * This replays every game in a file and prints how many there were and who won them.
+     * </p>
+     *
+     * @param args
+     *            The game record file to read.
+     * @throws IOException if the file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        long games = 0;
+        long moves = 0;
+        long ties = 0;
+        long[] wins = new long[IGameBoard.MAXPLAYERS];
+        BoardPool boards = new BoardPool(1);
+        try (GameRecordReader reader = new GameRecordReader(Paths.get(args[0]))) {
+            GameRecord r;
+            while ((r = reader.next()) != null) {
+                IGameBoard board = boards.acquire(BoardFactory.BIT, r.getRows(), r.getColumns(), r.getNumToWin());
+                GameEngine game = r.replay(board);
+                if (game.getWinner() != r.getWinner()) {
+                    throw new IOException("Game " + games + " replays to a different result than was recorded");
+                }
+                boards.release(board);
+                games++;
+                moves += r.getNumMoves();
+                if (r.getWinner() == GameEngine.NO_WINNER) {
+                    ties++;
+                } else {
+                    wins[r.getWinner()]++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %d games (%d moves) in %.2f s%n", games, moves, seconds);
+        for (int p = 0; p < wins.length; p++) {
+            if (wins[p] > 0) {
+                System.out.printf("  %c won %d%n", PlayerTokens.tokenAt(p), wins[p]);
+            }
+        }
+        System.out.printf("  ties or unfinished %d%n", ties);
+    }
+
+    /**
+     * reads an unsigned LEB128 varint
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    private int readByte() throws IOException {
+        if (!fill(1)) {
+            throw new EOFException("Game record file ends in the middle of a game");
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private int readInt() throws IOException {
+        if (!fill(Integer.BYTES)) {
+            throw new EOFException("Game record file is too short");
+        }
+        return buffer.getInt();
+    }
+
+    /**
+     * makes sure the buffer holds at least bytes unread bytes, reading more of the file if it doesn't
+     * @return false iff the file ends first
+     */
+    private boolean fill(int bytes) throws IOException {
+        while (buffer.remaining() < bytes && !endOfFile) {
+            buffer.compact();
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+            buffer.flip();
+        }
+        return buffer.remaining() >= bytes;
+    }
+}
@@ -0,0 +1,141 @@
+package cpsc2150.extendedConnectX.persistence;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class appends finished games to a game record file. A file starts with MAGIC and VERSION and then
+ * holds one record after another, every number in it an unsigned LEB128 varint so that a column or a count
+ * below 128 takes one byte:
+ * <pre>
+ *   rows, cols, numToWin, players, flags, winner + 1, numMoves, move columns..., [move millis...]
+ * </pre>
+ * flags has TIMED set when the record has the milliseconds of every move, and winner + 1 is 0 when nobody won.
+ * Records are gathered in a buffer and written to the channel when it fills up or on flush.
+ * <p>
+ * All methods are synchronized so one writer can be shared by every simulation thread.
+ *
+ * @invariant [the file holds the header and every record written before the last flush]
+ */
+public class GameRecordWriter implements Closeable {
+    /**
+     * the first bytes of every game record file, "CXGR"
+     */
+    public static final int MAGIC = 0x43584752;
+    public static final byte VERSION = 1;
+    public static final int TIMED = 1;
+    private static final int BUFFER_BYTES = 1 << 16;
+    // the most bytes one varint can take
+    private static final int MAX_VARINT = 5;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    /**
+     * Constructor that will open a game record file for appending, writing the header if the file is new
+     * @param file the file to append to
+     * @throws IOException if the file can't be opened or is not a game record file
+     * @post [records are appended after the ones already in file]
+     */
+    public GameRecordWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ);
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC).put(VERSION);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // keep reading until the header is complete
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.get(Integer.BYTES) != VERSION) {
+                channel.close();
+                throw new IOException(file + " is not a game record file");
+            }
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * appends the moves of game
+     * @param game the game to record
+     * @param moveMillis the milliseconds each move took, or null to leave timing out
+     * @throws IOException if the file can't be written
+     * @pre moveMillis = null OR moveMillis.length >= game.getNumMoves()
+     * @post [the record of game is in the buffer or the file] AND game = #game
+     */
+    public synchronized void write(GameEngine game, int[] moveMillis) throws IOException {
+        IGameBoard board = game.getBoard();
+        int numMoves = game.getNumMoves();
+        ensure(7 * MAX_VARINT);
+        putVarint(board.getNumRows());
+        putVarint(board.getNumColumns());
+        putVarint(board.getNumToWin());
+        putVarint(game.getNumPlayers());
+        putVarint(moveMillis == null ? 0 : TIMED);
+        putVarint(game.getWinner() + 1);
+        putVarint(numMoves);
+        for (int i = 0; i < numMoves; i++) {
+            ensure(MAX_VARINT);
+            putVarint(game.getMove(i));
+        }
+        if (moveMillis != null) {
+            for (int i = 0; i < numMoves; i++) {
+                ensure(MAX_VARINT);
+                putVarint(Math.max(0, moveMillis[i]));
+            }
+        }
+    }
+
+    /**
+     * writes everything in the buffer to the file
+     * @throws IOException if the file can't be written
+     * @post [the file holds every record written so far]
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * flushes and closes the file
+     * @throws IOException if the file can't be written or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * makes sure the buffer has room for bytes more bytes, writing it out if it doesn't
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * puts a number in the buffer 7 bits at a time, lowest first, with the top bit set on every byte but the last
+     * @pre value >= 0 AND [the buffer has MAX_VARINT bytes of room]
+     */
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -0,0 +1,313 @@
+package cpsc2150.extendedConnectX.persistence;
+
+import cpsc2150.extendedConnectX.models.GameEngine;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+import cpsc2150.extendedConnectX.models.PlayerTokens;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class holds a game in progress so it can be saved and picked up again later, in another process or on
+ * another kind of {@link IGameBoard}. A snapshot is read straight off the gameboard instead of its toString:
+ * <pre>
+ *   MAGIC, VERSION, rows, cols, numToWin, players, flags, winner + 1, computer seats, numMoves,
+ *   the height of every column, the player number of every token, the column of every move
+ * </pre>
+ * MAGIC and numMoves are ints and computer seats is a short with bit i set when a computer plays seat i.
+ * The tokens are listed column by column from the bottom up, two player numbers to a byte, and the moves
+ * give the game its history back so it can still be undone and recorded. Everything else is one byte.
+ * <p>
+ * A whole snapshot is built in one direct buffer and written to the file with a single channel write, so
+ * even a full 100x100 board is saved well under a millisecond.
+ *
+ * @invariant 0 <= numMoves = [sum of heights] <= rows * cols
+ * @invariant MINNUMTOWIN <= numToWin <= min(MAXNUMTOWIN, rows, cols)
+ * @invariant [computerSeats only has bits for seats below players, and seat 0 is a person]
+ * @invariant [the moves in each column, in order, were made by the players whose tokens are in that
+ * column, bottom up]
+ *
+ * @correspondence self = [the game on a rows x cols board with numToWin to win, between players players,
+ * after moves[0...numMoves - 1], with the controller's resetGame = isResetGame()]
+ */
+public class GameSnapshot {
+    /**
+     * the first bytes of every snapshot, "CXSN"
+     */
+    public static final int MAGIC = 0x4358534E;
+    public static final byte VERSION = 1;
+    public static final int RESET_GAME = 1;
+    // MAGIC, VERSION, the six one byte numbers, computer seats and numMoves
+    private static final int HEADER_BYTES = Integer.BYTES + 7 + Short.BYTES + Integer.BYTES;
+
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final int players;
+    private final int flags;
+    private final int winner;
+    private final int computerSeats;
+    private final int numMoves;
+    private final int[] heights;
+    private final byte[] tokens;
+    private final int[] moves;
+
+    private GameSnapshot(int rows, int cols, int numToWin, int players, int flags, int winner, int computerSeats,
+                         int numMoves, int[] heights, byte[] tokens, int[] moves) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numToWin = numToWin;
+        this.players = players;
+        this.flags = flags;
+        this.winner = winner;
+        this.computerSeats = computerSeats;
+        this.numMoves = numMoves;
+        this.heights = heights;
+        this.tokens = tokens;
+        this.moves = moves;
+    }
+
+    /**
+     * builds the snapshot of a game
+     * @param game the game to snapshot
+     * @param resetGame true if the game is over and the next click starts a new one
+     * @param computerSeats the seats played by computers, bit i for seat i
+     * @return a buffer holding the snapshot, ready to be read
+     * @post [encode holds the snapshot of game] AND game = #game
+     */
+    public static ByteBuffer encode(GameEngine game, boolean resetGame, int computerSeats) {
+        IGameBoard board = game.getBoard();
+        int cols = board.getNumColumns();
+        int numMoves = game.getNumMoves();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_BYTES + cols + (numMoves + 1) / 2 + numMoves);
+        buffer.putInt(MAGIC).put(VERSION);
+        buffer.put((byte) board.getNumRows()).put((byte) cols).put((byte) board.getNumToWin());
+        buffer.put((byte) game.getNumPlayers()).put((byte) (resetGame ? RESET_GAME : 0));
+        buffer.put((byte) (game.getWinner() + 1)).putShort((short) computerSeats).putInt(numMoves);
+        for (int c = 0; c < cols; c++) {
+            buffer.put((byte) board.getColumnHeight(c));
+        }
+        // two tokens to a byte, the first in the low four bits
+        int pending = -1;
+        for (int c = 0; c < cols; c++) {
+            int height = board.getColumnHeight(c);
+            for (int r = 0; r < height; r++) {
+                int player = PlayerTokens.indexOf(board.whatsAtPos(r, c));
+                if (pending < 0) {
+                    pending = player;
+                } else {
+                    buffer.put((byte) (pending | player << 4));
+                    pending = -1;
+                }
+            }
+        }
+        if (pending >= 0) {
+            buffer.put((byte) pending);
+        }
+        for (int i = 0; i < numMoves; i++) {
+            buffer.put((byte) game.getMove(i));
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * saves the snapshot of a game to a file. The snapshot is written next to file and then moved over it,
+     * so a save that fails part way leaves the last snapshot in place
+     * @param file the file to save to
+     * @param game the game to snapshot
+     * @param resetGame true if the game is over and the next click starts a new one
+     * @param computerSeats the seats played by computers, bit i for seat i
+     * @throws IOException if the file can't be written
+     * @post [file holds the snapshot of game] AND game = #game
+     */
+    public static void save(Path file, GameEngine game, boolean resetGame, int computerSeats) throws IOException {
+        ByteBuffer buffer = encode(game, resetGame, computerSeats);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * reads a snapshot out of a buffer
+     * @param buffer the buffer to read from
+     * @return the snapshot
+     * @throws IOException if the buffer doesn't hold a valid snapshot
+     * @post [the buffer's position is after the snapshot]
+     */
+    public static GameSnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IOException("Not a game snapshot");
+        }
+        int rows = buffer.get() & 0xFF;
+        int cols = buffer.get() & 0xFF;
+        int numToWin = buffer.get() & 0xFF;
+        int players = buffer.get() & 0xFF;
+        int flags = buffer.get() & 0xFF;
+        int winner = (buffer.get() & 0xFF) - 1;
+        int computerSeats = buffer.getShort() & 0xFFFF;
+        int numMoves = buffer.getInt();
+        if (rows < IGameBoard.MINROWS || rows > IGameBoard.MAXROWS || cols < IGameBoard.MINCOLUMNS
+                || cols > IGameBoard.MAXCOLUMNS || players < IGameBoard.MINPLAYERS || players > IGameBoard.MAXPLAYERS
+                || numToWin < IGameBoard.MINNUMTOWIN || numToWin > IGameBoard.MAXNUMTOWIN || numToWin > rows
+                || numToWin > cols || winner >= players || numMoves < 0 || numMoves > rows * cols) {
+            throw new IOException("Game snapshot has an impossible configuration");
+        }
+        // a computer can't play a seat the game doesn't have, and seat 0 is always a person
+        if ((computerSeats >>> players) != 0 || (computerSeats & 1) != 0) {
+            throw new IOException("Game snapshot has impossible computer seats");
+        }
+        if (buffer.remaining() < cols + (numMoves + 1) / 2 + numMoves) {
+            throw new IOException("Game snapshot is too short");
+        }
+        int[] heights = new int[cols];
+        // where the tokens of each column start
+        int[] starts = new int[cols];
+        int filled = 0;
+        for (int c = 0; c < cols; c++) {
+            heights[c] = buffer.get() & 0xFF;
+            starts[c] = filled;
+            filled += heights[c];
+            if (heights[c] > rows) {
+                throw new IOException("Game snapshot has an overfull column");
+            }
+        }
+        if (filled != numMoves) {
+            throw new IOException("Game snapshot has " + filled + " tokens but " + numMoves + " moves");
+        }
+        byte[] tokens = new byte[(numMoves + 1) / 2];
+        buffer.get(tokens);
+        int[] moves = new int[numMoves];
+        // the moves must have put the tokens where they are
+        int[] placed = new int[cols];
+        for (int i = 0; i < numMoves; i++) {
+            int c = buffer.get() & 0xFF;
+            if (c >= cols || placed[c] == heights[c] || tokenAt(tokens, starts[c] + placed[c]) != i % players) {
+                throw new IOException("Game snapshot's move " + i + " doesn't match its board");
+            }
+            placed[c]++;
+            moves[i] = c;
+        }
+        return new GameSnapshot(rows, cols, numToWin, players, flags, winner, computerSeats, numMoves, heights,
+                tokens, moves);
+    }
+
+    /**
+     * loads a snapshot saved by save
+     * @param file the file to load
+     * @return the snapshot
+     * @throws IOException if the file can't be read or doesn't hold a valid snapshot
+     */
+    public static GameSnapshot load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > HEADER_BYTES + IGameBoard.MAXCOLUMNS + 3 * IGameBoard.MAXROWS * IGameBoard.MAXCOLUMNS) {
+                throw new IOException(file + " is too big to be a game snapshot");
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the whole file is in the buffer
+            }
+            return decode(buffer.flip());
+        }
+    }
+
+    /**
+     * puts the snapshot's tokens on a gameboard and continues its game there
+     * @param board the gameboard to continue on, of any implementation
+     * @return the game, ready for the next move
+     * @pre [board is empty] AND board.getNumRows() = getRows() AND board.getNumColumns() = getColumns() AND
+     * board.getNumToWin() = getNumToWin()
+     * @post [board holds the snapshot's tokens] AND restore.getBoard() = board AND
+     * restore.getNumMoves() = numMoves AND restore.getWinner() = getWinner()
+     */
+    public GameEngine restore(IGameBoard board) {
+        int k = 0;
+        for (int c = 0; c < cols; c++) {
+            for (int r = 0; r < heights[c]; r++) {
+                board.placeToken(PlayerTokens.tokenAt(tokenAt(tokens, k)), c);
+                k++;
+            }
+        }
+        return new GameEngine(board, players, moves, numMoves, winner);
+    }
+
+    /**
+     * returns the number of rows of the game's board
+     * @post getRows = rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * returns the number of columns of the game's board
+     * @post getColumns = cols
+     */
+    public int getColumns() {
+        return cols;
+    }
+
+    /**
+     * returns how many tokens in a row win the game
+     * @post getNumToWin = numToWin
+     */
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    /**
+     * returns the number of players in the game
+     * @post getPlayers = players
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * returns the number of the player whose turn it is
+     * @post getCurrentPlayer = numMoves mod players
+     */
+    public int getCurrentPlayer() {
+        return numMoves % players;
+    }
+
+    /**
+     * returns the number of the player who won
+     * @post getWinner = winner
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * returns true if the game was over and waiting for a click to start a new one
+     * @post isResetGame = [flags has RESET_GAME set]
+     */
+    public boolean isResetGame() {
+        return (flags & RESET_GAME) != 0;
+    }
+
+    /**
+     * returns the seats played by computers
+     * @post getComputerSeats = computerSeats
+     */
+    public int getComputerSeats() {
+        return computerSeats;
+    }
+
+    /**
+     * returns the player number of the k-th token, counting column by column from the bottom up
+     */
+    private static int tokenAt(byte[] tokens, int k) {
+        return (tokens[k >> 1] >> ((k & 1) << 2)) & 0xF;
+    }
+}
@@ -0,0 +1,254 @@
+package cpsc2150.extendedConnectX.views;
+
+import cpsc2150.extendedConnectX.models.PlayerTokens;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import javax.swing.*;
+
+/**
+ * This class draws the Extended Connect X grid as a single component instead of one button per cell.
+ * The tokens are kept in an array and {@code paintComponent} draws only the cells inside the area being
+ * repainted, so placing a token repaints just that one cell and even a 100x100 board opens instantly.
+ * <p>
+ * The row above the grid shows an arrow over the column under the mouse. Clicking anywhere on the board
+ * selects the column under the mouse and tells the listener with an {@link ActionEvent} whose source is
+ * this canvas.
+ *
+ * @invariant [cells[r * cols + c] is the token at row r, column c counting from the bottom, or EMPTY]
+ * @invariant -1 <= hoverColumn < cols AND -1 <= selectedColumn < cols
+ */
+public class BoardCanvas extends JComponent {
+
+    private static final int MAX_CELL = 50, MIN_CELL = 6;
+    // below this many pixels a letter can't be read, so tokens are only told apart by color and aren't smoothed
+    private static final int MIN_LETTER_CELL = 16;
+    private static final char EMPTY = ' ';
+    // a color for each player, in the order of the player tokens
+    private static final Color[] TOKEN_COLORS = {
+            new Color(0xC62828), new Color(0x1565C0), new Color(0x2E7D32), new Color(0xEF6C00),
+            new Color(0x6A1B9A), new Color(0x00838F), new Color(0x5D4037), new Color(0xAD1457),
+            new Color(0x827717), new Color(0x37474F)};
+    private static final Color GRID = new Color(0xB0B0B0);
+    private static final Color HOVER = new Color(0xE3F2FD);
+
+    private final int rows;
+    private final int cols;
+    private final char[] cells;
+    private ActionListener listener;
+    private int hoverColumn = -1;
+    private int selectedColumn = -1;
+
+    /**
+     * <p>
+     * This creates an empty board, sized to fit on the screen with cells of at most 50 pixels.
+     * </p>
+     *
+     * @param rows the number of rows on the board
+     * @param cols the number of columns on the board
+     *
+     * @pre rows > 0 and cols > 0
+     * @post [ every cell is empty and no column is selected ]
+     */
+    public BoardCanvas(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new char[rows * cols];
+        Arrays.fill(cells, EMPTY);
+
+        int cell = MAX_CELL;
+        if (!GraphicsEnvironment.isHeadless()) {
+            // leave room on the screen for the message and the window border
+            Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+            cell = Math.min(cell, Math.min((screen.width - 40) / cols, (screen.height - 240) / (rows + 1)));
+            cell = Math.max(MIN_CELL, cell);
+        }
+        // one more pixel for the lines on the right and bottom edges
+        setPreferredSize(new Dimension(cell * cols + 1, cell * (rows + 1) + 1));
+        setOpaque(true);
+        setBackground(Color.WHITE);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setHoverColumn(columnAt(e.getX()));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                setHoverColumn(-1);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                int c = columnAt(e.getX());
+                if (c >= 0 && contains(e.getPoint()) && listener != null) {
+                    selectedColumn = c;
+                    listener.actionPerformed(new ActionEvent(BoardCanvas.this, ActionEvent.ACTION_PERFORMED,
+                            Integer.toString(c)));
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    /**
+     * <p>
+     * This sets who is told when a column is clicked.
+     * </p>
+     *
+     * @param l the listener to tell
+     *
+     * @post listener = l
+     */
+    public void setActionListener(ActionListener l) {
+        listener = l;
+    }
+
+    /**
+     * <p>
+     * This returns the column that was clicked last.
+     * </p>
+     *
+     * @return the column, or -1 if none has been clicked
+     *
+     * @post getSelectedColumn = selectedColumn
+     */
+    public int getSelectedColumn() {
+        return selectedColumn;
+    }
+
+    /**
+     * <p>
+     * This puts a token in a cell and repaints only that cell.
+     * </p>
+     *
+     * @param row the row of the cell, counting from the bottom
+     * @param col the column of the cell
+     * @param player the token to show
+     *
+     * @pre 0 <= row < rows and 0 <= col < cols
+     * @post [ the cell at row, col shows player ]
+     */
+    public void setMarker(int row, int col, char player) {
+        cells[row * cols + col] = player;
+        int cell = cellSize();
+        repaint(left() + col * cell, top() + (rows - row) * cell, cell, cell);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int cell = cellSize();
+        if (cell >= MIN_LETTER_CELL) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        }
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int left = left();
+        int top = top();
+        // only the columns and rows that cross the clip, with row 0 being the arrow row
+        int firstCol = Math.max(0, (clip.x - left) / cell);
+        int lastCol = Math.min(cols - 1, (clip.x + clip.width - left) / cell);
+        int firstRow = Math.max(0, (clip.y - top) / cell);
+        int lastRow = Math.min(rows, (clip.y + clip.height - top) / cell);
+
+        Font font = getFont() == null ? new Font(Font.SANS_SERIF, Font.BOLD, 12) : getFont();
+        g.setFont(font.deriveFont(Font.BOLD, cell * 0.7f));
+        FontMetrics metrics = g.getFontMetrics();
+        int gap = Math.max(1, cell / 10);
+
+        for (int c = firstCol; c <= lastCol; c++) {
+            int x = left + c * cell;
+            if (c == hoverColumn) {
+                g.setColor(HOVER);
+                g.fillRect(x, top, cell, cell * (rows + 1));
+            }
+            for (int i = firstRow; i <= lastRow; i++) {
+                int y = top + i * cell;
+                if (i == 0) {
+                    if (c == hoverColumn) {
+                        // an arrow pointing down into the column
+                        g.setColor(GRID.darker());
+                        g.fillPolygon(new int[] {x + gap, x + cell - gap, x + cell / 2},
+                                new int[] {y + gap, y + gap, y + cell - gap}, 3);
+                    }
+                    continue;
+                }
+                g.setColor(GRID);
+                g.drawRect(x, y, cell, cell);
+                char token = cells[(rows - i) * cols + c];
+                if (token != EMPTY) {
+                    g.setColor(TOKEN_COLORS[PlayerTokens.indexOf(token)]);
+                    g.fillOval(x + gap, y + gap, cell - 2 * gap, cell - 2 * gap);
+                    if (cell >= MIN_LETTER_CELL) {
+                        g.setColor(Color.WHITE);
+                        String s = Character.toString(token);
+                        g.drawString(s, x + (cell - metrics.stringWidth(s)) / 2,
+                                y + (cell - metrics.getHeight()) / 2 + metrics.getAscent());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * returns the side of a cell in pixels, the largest that fits the current size
+     */
+    private int cellSize() {
+        return Math.max(1, Math.min(getWidth() / cols, getHeight() / (rows + 1)));
+    }
+
+    /**
+     * returns the x of the left edge of the grid, which is centered in the component
+     */
+    private int left() {
+        return (getWidth() - cellSize() * cols) / 2;
+    }
+
+    /**
+     * returns the y of the top of the arrow row, which is centered with the grid in the component
+     */
+    private int top() {
+        return (getHeight() - cellSize() * (rows + 1)) / 2;
+    }
+
+    /**
+     * returns the column under x, or -1 if x is off the grid
+     */
+    private int columnAt(int x) {
+        int offset = x - left();
+        if (offset < 0) {
+            return -1;
+        }
+        int c = offset / cellSize();
+        return c < cols ? c : -1;
+    }
+
+    /**
+     * moves the highlighted column, repainting only the old and new columns
+     */
+    private void setHoverColumn(int c) {
+        if (c == hoverColumn) {
+            return;
+        }
+        int cell = cellSize();
+        if (hoverColumn >= 0) {
+            repaint(left() + hoverColumn * cell, top(), cell + 1, cell * (rows + 1) + 1);
+        }
+        hoverColumn = c;
+        if (hoverColumn >= 0) {
+            repaint(left() + hoverColumn * cell, top(), cell + 1, cell * (rows + 1) + 1);
+        }
+    }
+}
@@ -23,11 +23,22 @@ public class SetupView extends JFrame implements ActionListener {
     private JTextArea numColsTxt;
     private final Integer[] players = {2, 3, 4, 5, 6, 7, 8, 9, 10};
     private JComboBox<Integer> numPlayersCB;
+    private final String[] boardTypes = {SetupController.BOARD_AUTO, SetupController.BOARD_FAST,
+            SetupController.BOARD_MEM, SetupController.BOARD_BIT};
+    private JComboBox<String> boardTypeCB;
+    private final Integer[] computers = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+    private JComboBox<Integer> numComputersCB;
+    private final String[] computerTypes = {SetupController.COMPUTER_ALPHA_BETA,
+            SetupController.COMPUTER_MONTE_CARLO};
+    private JComboBox<String> computerTypeCB;
     private JLabel errorMessageLbl;
     private JLabel numRowsLbl;
     private JLabel numColsLbl;
     private JLabel numPlayersLbl;
     private JLabel numWinLbl;
+    private JLabel boardTypeLbl;
+    private JLabel numComputersLbl;
+    private JLabel computerTypeLbl;
     private JTextArea numWinTxt;
     private float fontSize = 40;
     private SetupController controller;
@@ -50,6 +61,12 @@ public class SetupView extends JFrame implements ActionListener {
         numPlayersCB = new JComboBox<>(players);
         numWinLbl = new JLabel("Number to win: ");
         numWinTxt = new JTextArea(1, 10);
+        boardTypeLbl = new JLabel("Board Type: ");
+        boardTypeCB = new JComboBox<>(boardTypes);
+        numComputersLbl = new JLabel("Computer Players: ");
+        numComputersCB = new JComboBox<>(computers);
+        computerTypeLbl = new JLabel("Computer Type: ");
+        computerTypeCB = new JComboBox<>(computerTypes);
 
         numRowsLbl.setFont(numRowsLbl.getFont().deriveFont(fontSize));
         numRowsTxt.setFont(numRowsLbl.getFont());
@@ -66,7 +83,16 @@ public class SetupView extends JFrame implements ActionListener {
         numWinLbl.setFont(numRowsLbl.getFont());
         numWinTxt.setFont(numRowsLbl.getFont());
 
-        this.setLayout(new GridLayout(6, 1));
+        boardTypeLbl.setFont(numRowsLbl.getFont());
+        boardTypeCB.setFont(numRowsLbl.getFont());
+
+        numComputersLbl.setFont(numRowsLbl.getFont());
+        numComputersCB.setFont(numRowsLbl.getFont());
+
+        computerTypeLbl.setFont(numRowsLbl.getFont());
+        computerTypeCB.setFont(numRowsLbl.getFont());
+
+        this.setLayout(new GridLayout(9, 1));
         this.add(errorMessageLbl);
         JPanel rowsPanel = new JPanel(new GridLayout(1, 2));
         rowsPanel.add(numRowsLbl);
@@ -88,6 +114,21 @@ public class SetupView extends JFrame implements ActionListener {
         playersPanel.add(numPlayersCB);
         this.add(playersPanel);
 
+        JPanel boardTypePanel = new JPanel(new GridLayout(1, 2));
+        boardTypePanel.add(boardTypeLbl);
+        boardTypePanel.add(boardTypeCB);
+        this.add(boardTypePanel);
+
+        JPanel numComputersPanel = new JPanel(new GridLayout(1, 2));
+        numComputersPanel.add(numComputersLbl);
+        numComputersPanel.add(numComputersCB);
+        this.add(numComputersPanel);
+
+        JPanel computerTypePanel = new JPanel(new GridLayout(1, 2));
+        computerTypePanel.add(computerTypeLbl);
+        computerTypePanel.add(computerTypeCB);
+        this.add(computerTypePanel);
+
         submitButton.addActionListener(this);
         this.add(submitButton);
 
@@ -162,9 +203,13 @@ public class SetupView extends JFrame implements ActionListener {
             }
 
             numPlayers = numPlayersCB.getItemAt(numPlayersCB.getSelectedIndex());
+            String boardType = boardTypeCB.getItemAt(boardTypeCB.getSelectedIndex());
+            int numComputers = numComputersCB.getItemAt(numComputersCB.getSelectedIndex());
+            String computerType = computerTypeCB.getItemAt(computerTypeCB.getSelectedIndex());
 
             if (msg.equals("")) {
-                controller.processButtonClick(numRows, numCols, numPlayers, numWin);
+                controller.processButtonClick(numRows, numCols, numPlayers, numWin, boardType,
+                        numComputers, computerType);
             } else {
                 errorMessageLbl.setText(msg);
             }